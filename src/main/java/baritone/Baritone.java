@@ -77,6 +77,13 @@ public class Baritone implements IBaritone {
 		return threadPool;
 	}
 
+	/**
+	 * @return How many of the executor's core threads aren't doing anything right now
+	 */
+	public static int getIdleExecutorThreads() {
+		return Math.max(0, threadPool.getCorePoolSize() - threadPool.getActiveCount());
+	}
+
 	public static Settings settings() {
 		return BaritoneAPI.getSettings();
 	}
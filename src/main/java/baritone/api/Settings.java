@@ -325,11 +325,11 @@ public final class Settings {
 	public final Setting<Double> backtrackCostFavoringCoefficient = new Setting<>(0.5);
 
 	/**
-	 * Toggle the following 4 settings
+	 * Toggle the following 7 settings
 	 * <p>
 	 * They have a noticeable performance impact, so they default off
 	 * <p>
-	 * Specifically, building up the avoidance map on the main thread before pathing starts actually takes a noticeable amount of time, especially when there are a lot of mobs around, and your game jitters for like 200ms while doing so
+	 * Avoidances are evaluated lazily on the pathing thread, so enabling this doesn't make the game jitter, but every node near a mob or spawner is a bit more expensive to calculate
 	 */
 	public final Setting<Boolean> avoidance = new Setting<>(false);
 
@@ -351,6 +351,23 @@ public final class Settings {
 
 	public final Setting<Integer> mobAvoidanceRadius = new Setting<>(8);
 
+	/**
+	 * Keep mob avoidance up to date while a path is being walked, instead of only avoiding where mobs were when the calculation started
+	 * <p>
+	 * If a mob moves onto the path shortly ahead of you, the current segment is cancelled (if it's safe to) so that it gets recalculated around the mob. Each calculation still uses the mob positions from when it started, extrapolated by {@link #mobAvoidanceExtrapolationTicks}.
+	 */
+	public final Setting<Boolean> dynamicMobAvoidance = new Setting<>(true);
+
+	/**
+	 * How many ticks ahead to predict where mobs will be, based on their current velocity
+	 */
+	public final Setting<Integer> mobAvoidanceExtrapolationTicks = new Setting<>(10);
+
+	/**
+	 * How many movements ahead to check for mobs that moved onto the path
+	 */
+	public final Setting<Integer> mobAvoidanceRepairLookahead = new Setting<>(8);
+
 	/**
 	 * When running a goto towards a container block (chest, ender chest, furnace, etc), right click and open it once you arrive.
 	 */
@@ -385,6 +402,23 @@ public final class Settings {
 	 */
 	public final Setting<Integer> costVerificationLookahead = new Setting<>(5);
 
+	/**
+	 * Keep re-costing the upcoming movements on another thread, and cancel as soon as one of them became impossible or its cost increased by more than {@link #maxCostIncrease}
+	 * <p>
+	 * Unlike {@link #costVerificationLookahead} this doesn't cost any frame time, so it can look much further ahead
+	 */
+	public final Setting<Boolean> backgroundCostVerification = new Setting<>(true);
+
+	/**
+	 * How many upcoming movements {@link #backgroundCostVerification} re-costs
+	 */
+	public final Setting<Integer> backgroundCostVerificationWindow = new Setting<>(40);
+
+	/**
+	 * The minimum number of ticks between two {@link #backgroundCostVerification} runs, each of which copies the loaded chunks on the client thread
+	 */
+	public final Setting<Integer> backgroundCostVerificationInterval = new Setting<>(5);
+
 	/**
 	 * Static cutoff factor. 0.9 means cut off the last 10% of all paths, regardless of chunk load state
 	 */
@@ -463,6 +497,40 @@ public final class Settings {
 	 */
 	public final Setting<Long> planAheadFailureTimeoutMS = new Setting<>(5000L);
 
+	/**
+	 * Once planning ahead finds a path to the goal, keep improving it until the current segment is almost over or {@link #planAheadFailureTimeoutMS} is up, instead of stopping right away
+	 * <p>
+	 * The first path is found with a weighted heuristic so it comes in quickly, then the weight is lowered step by step, reusing the work done so far. Every improvement replaces the planned next segment as long as it hasn't been started yet. The segment isn't spliced into the current path while it's still being improved, see {@link #planAheadAnytimeStopTicks}
+	 */
+	public final Setting<Boolean> planAheadAnytime = new Setting<>(false);
+
+	/**
+	 * The heuristic weight of the first anytime search iteration. Higher finds the first path faster, but it'll be worse
+	 */
+	public final Setting<Double> planAheadAnytimeInitialWeight = new Setting<>(2.0);
+
+	/**
+	 * How much the heuristic weight is lowered after every anytime search iteration, until it's 1
+	 */
+	public final Setting<Double> planAheadAnytimeWeightStep = new Setting<>(0.25);
+
+	/**
+	 * Stop improving the planned next segment once the current segment has less than this many ticks left
+	 */
+	public final Setting<Integer> planAheadAnytimeStopTicks = new Setting<>(20);
+
+	/**
+	 * While planning ahead, also plan next segments from a few positions along the current segment on otherwise idle threads
+	 * <p>
+	 * If the current segment ends somewhere other than where it was supposed to, one of those can be continued onto instead of stopping to calculate a new one
+	 */
+	public final Setting<Boolean> speculativePlanAhead = new Setting<>(false);
+
+	/**
+	 * How many positions along the current segment to speculatively plan ahead from
+	 */
+	public final Setting<Integer> speculativePlanAheadCandidates = new Setting<>(2);
+
 	/**
 	 * For debugging, consider nodes much much slower
 	 */
@@ -483,6 +551,15 @@ public final class Settings {
 	 */
 	public final Setting<Boolean> chunkCaching = new Setting<>(true);
 
+	/**
+	 * How many bits to cache per block, either 2 or 4.
+	 * <p>
+	 * 2 only knows air, water, avoid and solid. 4 additionally remembers falling blocks, ladders, slabs, stairs, fences, leaves, soul sand and hard or unbreakable blocks, so paths through cached terrain are costed much closer to what they'll really cost once the chunks load.
+	 * <p>
+	 * 4 doubles the size of the cache in RAM and on disk, and regions containing such chunks can't be read by older versions. Only affects chunks packed from now on.
+	 */
+	public final Setting<Integer> chunkCacheBitsPerBlock = new Setting<>(2);
+
 	/**
 	 * On save, delete from RAM any cached regions that are more than 1024 blocks away from the player
 	 * <p>
@@ -800,6 +877,13 @@ public final class Settings {
 	 */
 	public final Setting<Integer> incorrectSize = new Setting<>(100);
 
+	/**
+	 * Work through the schematic one chunk section at a time, sweeping back and forth across it, instead of going for whichever incorrect block is closest
+	 * <p>
+	 * This keeps the builder from zig-zagging across large schematics, and keeps the goal small. Incorrect blocks right around the player are still fixed on the way.
+	 */
+	public final Setting<Boolean> buildInCells = new Setting<>(true);
+
 	/**
 	 * Multiply the cost of breaking a block that's correct in the builder's schematic by this coefficient
 	 */
@@ -0,0 +1,49 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.event.events;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Fired after a single block of the client world changed, whether by the server or by the local player
+ */
+public final class BlockChangeEvent {
+
+	/**
+	 * The position of the block that changed
+	 */
+	private final BlockPos pos;
+
+	/**
+	 * The new state of the block
+	 */
+	private final BlockState state;
+
+	public BlockChangeEvent(BlockPos pos, BlockState state) {
+		this.pos = pos;
+		this.state = state;
+	}
+
+	/**
+	 * @return The position of the block that changed
+	 */
+	public BlockPos getPos() {
+		return pos;
+	}
+
+	/**
+	 * @return The new state of the block
+	 */
+	public BlockState getState() {
+		return state;
+	}
+}
@@ -10,6 +10,7 @@
 
 package baritone.api.event.listener;
 
+import baritone.api.event.events.BlockChangeEvent;
 import baritone.api.event.events.BlockInteractEvent;
 import baritone.api.event.events.ChatEvent;
 import baritone.api.event.events.ChunkEvent;
@@ -32,6 +33,10 @@ import baritone.api.event.events.WorldEvent;
  */
 public interface AbstractGameEventListener extends IGameEventListener {
 
+	@Override
+	default void onBlockChange(BlockChangeEvent event) {
+	}
+
 	@Override
 	default void onBlockInteract(BlockInteractEvent event) {
 	}
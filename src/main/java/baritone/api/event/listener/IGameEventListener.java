@@ -10,6 +10,7 @@
 
 package baritone.api.event.listener;
 
+import baritone.api.event.events.BlockChangeEvent;
 import baritone.api.event.events.BlockInteractEvent;
 import baritone.api.event.events.ChatEvent;
 import baritone.api.event.events.ChunkEvent;
@@ -35,6 +36,13 @@ import net.minecraft.network.Packet;
  */
 public interface IGameEventListener {
 
+	/**
+	 * Called after a block of the client world changed. Blocks populated by chunk data don't fire this, see {@link #onChunkEvent(ChunkEvent)} for those.
+	 *
+	 * @param event The event
+	 */
+	void onBlockChange(BlockChangeEvent event);
+
 	/**
 	 * Called when the local player interacts with a block, whether it is breaking or opening/placing.
 	 *
@@ -88,6 +88,25 @@ public interface IPath {
 	 */
 	List<BetterBlockPos> positions();
 
+	/**
+	 * Returns the index of the specified position in {@link IPath#positions()}. Implementations may index the positions to make this faster than a search through the list.
+	 *
+	 * @param pos The position
+	 * @return The index of the first occurrence of the position, or -1 if this path doesn't contain it
+	 */
+	default int indexOf(BetterBlockPos pos) {
+		return positions().indexOf(pos);
+	}
+
+	/**
+	 * @param pos The position
+	 * @return Whether the position is one of this path's positions
+	 * @see IPath#indexOf(BetterBlockPos)
+	 */
+	default boolean contains(BetterBlockPos pos) {
+		return indexOf(pos) != -1;
+	}
+
 	/**
 	 * This path is actually going to be executed in the world. Do whatever additional processing is required. (as opposed to Path objects that are just constructed every frame for rendering)
 	 *
@@ -10,20 +10,58 @@
 
 package baritone.api.pathing.goals;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import baritone.api.BaritoneAPI;
+import net.minecraft.util.math.BlockPos;
 
 /**
  * A composite of many goals, any one of which satisfies the composite. For example, a GoalComposite of block goals for every oak log in loaded chunks would result in it pathing to the easiest oak log to get to
+ * <p>
+ * The heuristic is evaluated for every node the pathfinder creates, so the first time it's needed the goals are compiled into flat coordinate arrays grouped by heuristic shape, and the minimum is taken in a tight loop instead of through a virtual call per goal. Only goals whose heuristic is one of the known shapes (that is, inherited unchanged from {@link GoalBlock}, {@link GoalNear}, {@link GoalTwoBlocks}, {@link GoalGetToBlock} or {@link GoalXZ}) are compiled, everything else is still called as usual.
  *
  * @author avecowa
  */
 public class GoalComposite implements Goal {
 
+	/**
+	 * Composites with at least this many compiled goals also get a spatial index, so that far away goals don't have to be looked at
+	 */
+	private static final int GRID_THRESHOLD = 128;
+
+	/**
+	 * Upper bound on the number of cells in the spatial index, cells are made bigger until it fits
+	 */
+	private static final int MAX_GRID_CELLS = 4096;
+
+	private static final double SQRT_2 = Math.sqrt(2);
+
+	/**
+	 * The class that declares the heuristic of each goal class, to tell which goals have a shape that can be compiled
+	 */
+	private static final ClassValue<Class<?>> HEURISTIC_DECLARER = new ClassValue<Class<?>>() {
+
+		@Override
+		protected Class<?> computeValue(Class<?> type) {
+			try {
+				return type.getMethod("heuristic", int.class, int.class, int.class).getDeclaringClass();
+			} catch (NoSuchMethodException e) {
+				return type;
+			}
+		}
+	};
+
 	/**
 	 * An array of goals that any one of must be satisfied
 	 */
 	private final Goal[] goals;
 
+	/**
+	 * Compiled lazily, every field of it is final so it's safe to publish without synchronization
+	 */
+	private Compiled compiled;
+
 	public GoalComposite(Goal... goals) {
 		this.goals = goals;
 	}
@@ -34,12 +72,13 @@ public class GoalComposite implements Goal {
 
 	@Override
 	public double heuristic(int x, int y, int z) {
-		double min = Double.MAX_VALUE;
-		for (Goal g : goals) {
-			// TODO technically this isn't admissible...?
-			min = Math.min(min, g.heuristic(x, y, z)); // whichever is closest
+		Compiled compiled = this.compiled;
+		if (compiled == null) {
+			compiled = new Compiled(goals);
+			this.compiled = compiled;
 		}
-		return min;
+		// TODO technically this isn't admissible...?
+		return compiled.heuristic(x, y, z); // whichever is closest
 	}
 
 	@Override
@@ -55,4 +94,302 @@ public class GoalComposite implements Goal {
 	public String toString() {
 		return "GoalComposite" + Arrays.toString(goals);
 	}
+
+	/**
+	 * Same as {@link GoalXZ#calculate(double, double)}, with the setting read once by the caller
+	 */
+	private static double calculateXZ(int xDiff, int zDiff, double costHeuristic) {
+		int x = Math.abs(xDiff);
+		int z = Math.abs(zDiff);
+		double straight;
+		double diagonal;
+		if (x < z) {
+			straight = z - x;
+			diagonal = x;
+		} else {
+			straight = x - z;
+			diagonal = z;
+		}
+		diagonal *= SQRT_2;
+		return (diagonal + straight) * costHeuristic;
+	}
+
+	private static final class Compiled {
+
+		private final Flat all;
+
+		/**
+		 * {@code null} if there are too few compiled goals for it to pay off
+		 */
+		private final Grid grid;
+
+		/**
+		 * Goals with a heuristic that couldn't be compiled
+		 */
+		private final Goal[] others;
+
+		private Compiled(Goal[] goals) {
+			FlatBuilder builder = new FlatBuilder();
+			List<Goal> others = new ArrayList<>();
+			for (Goal goal : goals) {
+				if (!builder.add(goal)) {
+					others.add(goal);
+				}
+			}
+			all = builder.build();
+			grid = builder.size() >= GRID_THRESHOLD ? new Grid(builder) : null;
+			this.others = others.toArray(new Goal[0]);
+		}
+
+		private double heuristic(int x, int y, int z) {
+			double costHeuristic = BaritoneAPI.getSettings().costHeuristic.value;
+			double min;
+			if (grid != null && costHeuristic > 0) {
+				min = grid.min(x, y, z, costHeuristic);
+			} else {
+				min = all.min(x, y, z, costHeuristic, Double.MAX_VALUE);
+			}
+			for (Goal goal : others) {
+				min = Math.min(min, goal.heuristic(x, y, z));
+			}
+			return min;
+		}
+	}
+
+	/**
+	 * Goals of the form {@link GoalYLevel} cost to a vertical span plus {@link GoalXZ} cost, and goals of just the {@link GoalXZ} cost
+	 */
+	private static final class Flat {
+
+		private final int[] spanX;
+		private final int[] spanY;
+		private final int[] spanZ;
+
+		/**
+		 * How far the span reaches below its y, 0 for a single block
+		 */
+		private final int[] spanBelow;
+
+		private final int[] columnX;
+		private final int[] columnZ;
+
+		private Flat(int[] spanX, int[] spanY, int[] spanZ, int[] spanBelow, int[] columnX, int[] columnZ) {
+			this.spanX = spanX;
+			this.spanY = spanY;
+			this.spanZ = spanZ;
+			this.spanBelow = spanBelow;
+			this.columnX = columnX;
+			this.columnZ = columnZ;
+		}
+
+		private double min(int x, int y, int z, double costHeuristic, double min) {
+			for (int i = 0; i < spanX.length; i++) {
+				int yDiff = y - spanY[i];
+				int below = spanBelow[i];
+				double heuristic = GoalYLevel.calculate(yDiff < -below ? yDiff + below : yDiff > 0 ? yDiff : 0, 0) + calculateXZ(x - spanX[i], z - spanZ[i], costHeuristic);
+				if (heuristic < min) {
+					min = heuristic;
+				}
+			}
+			for (int i = 0; i < columnX.length; i++) {
+				double heuristic = calculateXZ(x - columnX[i], z - columnZ[i], costHeuristic);
+				if (heuristic < min) {
+					min = heuristic;
+				}
+			}
+			return min;
+		}
+	}
+
+	private static final class FlatBuilder {
+
+		private final IntList spanX = new IntList();
+		private final IntList spanY = new IntList();
+		private final IntList spanZ = new IntList();
+		private final IntList spanBelow = new IntList();
+		private final IntList columnX = new IntList();
+		private final IntList columnZ = new IntList();
+
+		/**
+		 * @param goal The goal
+		 * @return Whether the goal had a heuristic shape that could be compiled
+		 */
+		private boolean add(Goal goal) {
+			Class<?> declarer = HEURISTIC_DECLARER.get(goal.getClass());
+			if (declarer == GoalBlock.class) {
+				GoalBlock block = (GoalBlock) goal;
+				addSpan(block.x, block.y, block.z, 0);
+			} else if (declarer == GoalNear.class) {
+				BlockPos pos = ((GoalNear) goal).getGoalPos();
+				addSpan(pos.getX(), pos.getY(), pos.getZ(), 0);
+			} else if (declarer == GoalTwoBlocks.class) {
+				GoalTwoBlocks column = (GoalTwoBlocks) goal;
+				addSpan(column.x, column.y, column.z, column.height - 1);
+			} else if (declarer == GoalGetToBlock.class) {
+				GoalGetToBlock adjacent = (GoalGetToBlock) goal;
+				addSpan(adjacent.x, adjacent.y, adjacent.z, 1);
+			} else if (declarer == GoalXZ.class) {
+				GoalXZ xz = (GoalXZ) goal;
+				columnX.add(xz.getX());
+				columnZ.add(xz.getZ());
+			} else {
+				return false;
+			}
+			return true;
+		}
+
+		private void addSpan(int x, int y, int z, int below) {
+			spanX.add(x);
+			spanY.add(y);
+			spanZ.add(z);
+			spanBelow.add(below);
+		}
+
+		private int size() {
+			return spanX.size + columnX.size;
+		}
+
+		private Flat build() {
+			return new Flat(spanX.toArray(), spanY.toArray(), spanZ.toArray(), spanBelow.toArray(), columnX.toArray(), columnZ.toArray());
+		}
+
+		/**
+		 * @param indices Which goals to include, in ascending order, numbering spans first and then columns
+		 */
+		private Flat build(int[] indices, int from, int to) {
+			int spans = from;
+			while (spans < to && indices[spans] < spanX.size) {
+				spans++;
+			}
+			return new Flat(spanX.select(indices, from, spans, 0), spanY.select(indices, from, spans, 0), spanZ.select(indices, from, spans, 0), spanBelow.select(indices, from, spans, 0), columnX.select(indices, spans, to, spanX.size), columnZ.select(indices, spans, to, spanX.size));
+		}
+	}
+
+	/**
+	 * The compiled goals bucketed into square cells on the XZ plane. Cells are visited in rings of increasing distance around the queried position, and the search stops once no goal in the next ring could possibly beat the best heuristic so far.
+	 */
+	private static final class Grid {
+
+		private final int shift;
+		private final int minCellX;
+		private final int minCellZ;
+		private final int width;
+		private final int depth;
+		private final Flat[] cells;
+
+		private Grid(FlatBuilder builder) {
+			int size = builder.size();
+			int[] xs = new int[size];
+			int[] zs = new int[size];
+			for (int i = 0; i < builder.spanX.size; i++) {
+				xs[i] = builder.spanX.data[i];
+				zs[i] = builder.spanZ.data[i];
+			}
+			for (int i = 0; i < builder.columnX.size; i++) {
+				xs[builder.spanX.size + i] = builder.columnX.data[i];
+				zs[builder.spanX.size + i] = builder.columnZ.data[i];
+			}
+			int minX = Integer.MAX_VALUE;
+			int minZ = Integer.MAX_VALUE;
+			int maxX = Integer.MIN_VALUE;
+			int maxZ = Integer.MIN_VALUE;
+			for (int i = 0; i < size; i++) {
+				minX = Math.min(minX, xs[i]);
+				minZ = Math.min(minZ, zs[i]);
+				maxX = Math.max(maxX, xs[i]);
+				maxZ = Math.max(maxZ, zs[i]);
+			}
+			int shift = 4;
+			while ((long) ((maxX >> shift) - (minX >> shift) + 1) * ((maxZ >> shift) - (minZ >> shift) + 1) > MAX_GRID_CELLS) {
+				shift++;
+			}
+			this.shift = shift;
+			minCellX = minX >> shift;
+			minCellZ = minZ >> shift;
+			width = (maxX >> shift) - minCellX + 1;
+			depth = (maxZ >> shift) - minCellZ + 1;
+			// counting sort the goals by cell, which keeps them in ascending order within each cell
+			int[] cellOf = new int[size];
+			int[] cellStart = new int[width * depth + 1];
+			for (int i = 0; i < size; i++) {
+				cellOf[i] = ((xs[i] >> shift) - minCellX) * depth + (zs[i] >> shift) - minCellZ;
+				cellStart[cellOf[i] + 1]++;
+			}
+			for (int cell = 0; cell < width * depth; cell++) {
+				cellStart[cell + 1] += cellStart[cell];
+			}
+			int[] sorted = new int[size];
+			int[] next = Arrays.copyOf(cellStart, width * depth);
+			for (int i = 0; i < size; i++) {
+				sorted[next[cellOf[i]]++] = i;
+			}
+			cells = new Flat[width * depth];
+			for (int cell = 0; cell < cells.length; cell++) {
+				if (cellStart[cell] != cellStart[cell + 1]) {
+					cells[cell] = builder.build(sorted, cellStart[cell], cellStart[cell + 1]);
+				}
+			}
+		}
+
+		private double min(int x, int y, int z, double costHeuristic) {
+			// positions outside of the grid are clamped onto its edge, which only makes the distance bound below more conservative
+			int cellX = Math.max(0, Math.min(width - 1, (x >> shift) - minCellX));
+			int cellZ = Math.max(0, Math.min(depth - 1, (z >> shift) - minCellZ));
+			int maxRing = Math.max(Math.max(cellX, width - 1 - cellX), Math.max(cellZ, depth - 1 - cellZ));
+			double min = Double.MAX_VALUE;
+			for (int ring = 0; ring <= maxRing; ring++) {
+				// every goal in this ring is at least this many blocks away along x or z, and the vertical cost is never negative
+				if (ring > 0 && ((ring - 1 << shift) + 1) * costHeuristic >= min) {
+					break;
+				}
+				for (int cx = cellX - ring; cx <= cellX + ring; cx++) {
+					if (cx < 0 || cx >= width) {
+						continue;
+					}
+					boolean edge = cx == cellX - ring || cx == cellX + ring;
+					for (int cz = cellZ - ring; cz <= cellZ + ring; cz += edge || ring == 0 ? 1 : 2 * ring) {
+						if (cz < 0 || cz >= depth) {
+							continue;
+						}
+						Flat cell = cells[cx * depth + cz];
+						if (cell != null) {
+							min = cell.min(x, y, z, costHeuristic, min);
+						}
+					}
+				}
+			}
+			return min;
+		}
+	}
+
+	private static final class IntList {
+
+		private int[] data = new int[16];
+		private int size;
+
+		private void add(int value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, size * 2);
+			}
+			data[size++] = value;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(data, size);
+		}
+
+		/**
+		 * @param indices Indices into this list, plus the offset
+		 * @param from    The first index to use, inclusive
+		 * @param to      The last index to use, exclusive
+		 * @param offset  What to subtract from every index
+		 */
+		private int[] select(int[] indices, int from, int to, int offset) {
+			int[] result = new int[to - from];
+			for (int i = from; i < to; i++) {
+				result[i - from] = data[indices[i] - offset];
+			}
+			return result;
+		}
+	}
 }
@@ -36,14 +36,28 @@ public class GoalTwoBlocks implements Goal, IGoalRenderPos {
 	 */
 	protected final int z;
 
+	/**
+	 * How many blocks the goal reaches down from {@link #y}, 2 unless a subclass wants a taller column
+	 */
+	protected final int height;
+
 	public GoalTwoBlocks(BlockPos pos) {
 		this(pos.getX(), pos.getY(), pos.getZ());
 	}
 
 	public GoalTwoBlocks(int x, int y, int z) {
+		this(x, y, z, 2);
+	}
+
+	protected GoalTwoBlocks(BlockPos pos, int height) {
+		this(pos.getX(), pos.getY(), pos.getZ(), height);
+	}
+
+	protected GoalTwoBlocks(int x, int y, int z, int height) {
 		this.x = x;
 		this.y = y;
 		this.z = z;
+		this.height = height;
 	}
 
 	@Override
@@ -56,12 +70,13 @@ public class GoalTwoBlocks implements Goal, IGoalRenderPos {
 		int xDiff = x - this.x;
 		int yDiff = y - this.y;
 		int zDiff = z - this.z;
-		return GoalBlock.calculate(xDiff, yDiff < 0 ? yDiff + 1 : yDiff, zDiff);
+		int below = height - 1;
+		return GoalBlock.calculate(xDiff, yDiff < -below ? yDiff + below : yDiff > 0 ? yDiff : 0, zDiff);
 	}
 
 	@Override
 	public boolean isInGoal(int x, int y, int z) {
-		return x == this.x && (y == this.y || y == this.y - 1) && z == this.z;
+		return x == this.x && y <= this.y && y > this.y - height && z == this.z;
 	}
 
 	@Override
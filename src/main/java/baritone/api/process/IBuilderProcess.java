@@ -12,7 +12,9 @@ package baritone.api.process;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import baritone.api.schematic.ISchematic;
+import baritone.api.schematic.VerificationReport;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.util.math.BlockPos;
@@ -57,6 +59,14 @@ public interface IBuilderProcess extends IBaritoneProcess {
 	 */
 	List<BlockState> getApproxPlaceable();
 
+	/**
+	 * Diffs the whole schematic being built against the loaded and cached chunks, in the background. This has to be called on the client thread.
+	 *
+	 * @return The report, once it's done
+	 * @throws IllegalStateException if nothing is being built
+	 */
+	CompletableFuture<VerificationReport> verify();
+
 	boolean isPaused();
 
 	void pause();
@@ -11,14 +11,36 @@
 package baritone.api.schematic;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import net.minecraft.block.BlockState;
 
+/**
+ * A schematic made up of other schematics. Where entries overlap, the one put first wins.
+ * <p>
+ * Entries are indexed in a coarse grid over the bounding boxes, so a lookup only considers the few entries overlapping its cell rather than every entry.
+ */
 public class CompositeSchematic extends AbstractSchematic {
 
+	/**
+	 * An upper bound on the number of grid cells, the cells grow until the grid fits
+	 */
+	private static final int MAX_CELLS = 1 << 16;
+
+	private static final CompositeSchematicEntry[] EMPTY = new CompositeSchematicEntry[0];
+
 	private final List<CompositeSchematicEntry> schematics;
 	private CompositeSchematicEntry[] schematicArr;
 
+	/**
+	 * The entries overlapping each cell, in the order they were put
+	 */
+	private CompositeSchematicEntry[][] grid;
+	private int cellShift;
+	private int cellsX;
+	private int cellsY;
+	private int cellsZ;
+
 	public CompositeSchematic(int x, int y, int z) {
 		super(x, y, z);
 		schematics = new ArrayList<>();
@@ -34,7 +56,14 @@ public class CompositeSchematic extends AbstractSchematic {
 	}
 
 	private CompositeSchematicEntry getSchematic(int x, int y, int z, BlockState currentState) {
-		for (CompositeSchematicEntry entry : schematicArr) {
+		if (x < 0 || y < 0 || z < 0)
+			return null;
+		int cx = x >> cellShift;
+		int cy = y >> cellShift;
+		int cz = z >> cellShift;
+		if (cx >= cellsX || cy >= cellsY || cz >= cellsZ)
+			return null;
+		for (CompositeSchematicEntry entry : grid[(cx * cellsY + cy) * cellsZ + cz]) {
 			if (x >= entry.x && y >= entry.y && z >= entry.z && entry.schematic.inSchematic(x - entry.x, y - entry.y, z - entry.z, currentState))
 				return entry;
 		}
@@ -43,8 +72,7 @@ public class CompositeSchematic extends AbstractSchematic {
 
 	@Override
 	public boolean inSchematic(int x, int y, int z, BlockState currentState) {
-		CompositeSchematicEntry entry = getSchematic(x, y, z, currentState);
-		return entry != null && entry.schematic.inSchematic(x - entry.x, y - entry.y, z - entry.z, currentState);
+		return getSchematic(x, y, z, currentState) != null;
 	}
 
 	public void put(ISchematic extra, int x, int y, int z) {
@@ -52,6 +80,13 @@ public class CompositeSchematic extends AbstractSchematic {
 		recalcArr();
 	}
 
+	/**
+	 * @return The entries, in the order they were put
+	 */
+	public List<CompositeSchematicEntry> getEntries() {
+		return Collections.unmodifiableList(schematics);
+	}
+
 	private void recalcArr() {
 		schematicArr = schematics.toArray(new CompositeSchematicEntry[0]);
 		for (CompositeSchematicEntry entry : schematicArr) {
@@ -59,5 +94,45 @@ public class CompositeSchematic extends AbstractSchematic {
 			y = Math.max(y, entry.y + entry.schematic.heightY());
 			z = Math.max(z, entry.z + entry.schematic.lengthZ());
 		}
+
+		cellShift = 4;
+		while ((long) cells(x) * cells(y) * cells(z) > MAX_CELLS) {
+			cellShift++;
+		}
+		cellsX = cells(x);
+		cellsY = cells(y);
+		cellsZ = cells(z);
+		List<List<CompositeSchematicEntry>> building = new ArrayList<>();
+		for (int i = 0; i < cellsX * cellsY * cellsZ; i++) {
+			building.add(null);
+		}
+		for (CompositeSchematicEntry entry : schematicArr) {
+			// entries can be placed at negative coordinates, those parts can never be looked up anyway
+			int minX = Math.max(entry.x, 0) >> cellShift;
+			int minY = Math.max(entry.y, 0) >> cellShift;
+			int minZ = Math.max(entry.z, 0) >> cellShift;
+			int maxX = entry.x + entry.schematic.widthX() - 1 >> cellShift;
+			int maxY = entry.y + entry.schematic.heightY() - 1 >> cellShift;
+			int maxZ = entry.z + entry.schematic.lengthZ() - 1 >> cellShift;
+			for (int cx = minX; cx <= maxX; cx++) {
+				for (int cy = minY; cy <= maxY; cy++) {
+					for (int cz = minZ; cz <= maxZ; cz++) {
+						int index = (cx * cellsY + cy) * cellsZ + cz;
+						if (building.get(index) == null) {
+							building.set(index, new ArrayList<>());
+						}
+						building.get(index).add(entry);
+					}
+				}
+			}
+		}
+		grid = new CompositeSchematicEntry[building.size()][];
+		for (int i = 0; i < grid.length; i++) {
+			grid[i] = building.get(i) == null ? EMPTY : building.get(i).toArray(EMPTY);
+		}
+	}
+
+	private int cells(int size) {
+		return (size + (1 << cellShift) - 1) >> cellShift;
 	}
 }
@@ -32,5 +32,9 @@ public abstract class MaskSchematic extends AbstractSchematic {
 		return schematic.inSchematic(x, y, z, currentState) && partOfMask(x, y, z, currentState);
 	}
 
+	public ISchematic getSchematic() {
+		return schematic;
+	}
+
 	protected abstract boolean partOfMask(int x, int y, int z, BlockState currentState);
 }
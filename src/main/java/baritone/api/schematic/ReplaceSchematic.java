@@ -31,4 +31,8 @@ public class ReplaceSchematic extends MaskSchematic {
 		}
 		return cache[x][y][z];
 	}
+
+	public BlockOptionalMetaLookup getFilter() {
+		return filter;
+	}
 }
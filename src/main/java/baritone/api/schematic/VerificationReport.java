@@ -0,0 +1,147 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.api.schematic;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import baritone.api.utils.BetterBlockPos;
+import net.minecraft.block.Block;
+
+/**
+ * How much of a schematic is done, as of the moment it was verified against the world
+ */
+public final class VerificationReport {
+
+	/**
+	 * A connected region of the schematic that has incorrect blocks in it
+	 */
+	public static final class Region {
+
+		/**
+		 * The corners of the bounding box of the incorrect blocks, in world coordinates and inclusive
+		 */
+		public final BetterBlockPos min;
+		public final BetterBlockPos max;
+
+		/**
+		 * How many blocks in the region are incorrect
+		 */
+		public final int incorrect;
+
+		public Region(BetterBlockPos min, BetterBlockPos max, int incorrect) {
+			this.min = min;
+			this.max = max;
+			this.incorrect = incorrect;
+		}
+	}
+
+	private final long total;
+	private final long correct;
+	private final long approximateTotal;
+	private final long approximateCorrect;
+	private final long unknown;
+	private final int[] layerTotal;
+	private final int[] layerCorrect;
+	private final Map<Block, Integer> incorrectByBlock;
+	private final List<Region> regions;
+
+	public VerificationReport(long total, long correct, long approximateTotal, long approximateCorrect, long unknown, int[] layerTotal, int[] layerCorrect, Map<Block, Integer> incorrectByBlock, List<Region> regions) {
+		this.total = total;
+		this.correct = correct;
+		this.approximateTotal = approximateTotal;
+		this.approximateCorrect = approximateCorrect;
+		this.unknown = unknown;
+		this.layerTotal = layerTotal;
+		this.layerCorrect = layerCorrect;
+		this.incorrectByBlock = Collections.unmodifiableMap(incorrectByBlock);
+		this.regions = Collections.unmodifiableList(regions);
+	}
+
+	/**
+	 * @return How many positions of the schematic are in loaded chunks, where they could be checked exactly
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return How many of the positions in loaded chunks are correct
+	 */
+	public long getCorrect() {
+		return correct;
+	}
+
+	/**
+	 * @return How many positions of the schematic are in chunks that are only cached. The cache doesn't have the actual blocks, so these could only be checked roughly.
+	 */
+	public long getApproximateTotal() {
+		return approximateTotal;
+	}
+
+	/**
+	 * @return How many of the positions in cached chunks are cached as the same kind of block (air, water, solid or avoid) as the block that should be there
+	 */
+	public long getApproximateCorrect() {
+		return approximateCorrect;
+	}
+
+	/**
+	 * @return How many positions of the schematic's bounding box couldn't be checked because their chunk is neither loaded nor cached
+	 */
+	public long getUnknown() {
+		return unknown;
+	}
+
+	/**
+	 * @return The fraction of the positions in loaded chunks that are correct, between 0 and 1
+	 */
+	public double getCompletion() {
+		return total == 0 ? 1 : (double) correct / total;
+	}
+
+	/**
+	 * @return The height of the schematic, and so the number of layers
+	 */
+	public int getHeight() {
+		return layerTotal.length;
+	}
+
+	/**
+	 * @param y The layer, relative to the origin of the schematic
+	 * @return How many positions of the layer could be checked, exactly or roughly
+	 */
+	public int getLayerTotal(int y) {
+		return layerTotal[y];
+	}
+
+	/**
+	 * @param y The layer, relative to the origin of the schematic
+	 * @return How many of the checked positions of the layer are correct, or look correct in the cache
+	 */
+	public int getLayerCorrect(int y) {
+		return layerCorrect[y];
+	}
+
+	/**
+	 * @return How many incorrect positions there are per block that should be there, most common first. Blocks that should be broken count towards air. Positions in cached chunks only count when they aren't even cached as the right kind of block.
+	 */
+	public Map<Block, Integer> getIncorrectByBlock() {
+		return incorrectByBlock;
+	}
+
+	/**
+	 * @return The connected regions with incorrect blocks, the one with the most incorrect blocks first
+	 */
+	public List<Region> getRegions() {
+		return regions;
+	}
+}
@@ -62,6 +62,31 @@ public final class BetterBlockPos extends BlockPos {
 		return hash;
 	}
 
+	/**
+	 * Packs a position into a long that {@link #deserializeFromLong(long)} turns back into the same position. Unlike {@link #longHash(int, int, int)} this can be inverted, but it only covers x and z within 2^25 and y within 2^11 of zero, which is more than the world has.
+	 *
+	 * @return The packed position
+	 */
+	public static long serializeToLong(int x, int y, int z) {
+		return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | y & 0xFFF;
+	}
+
+	public static int xFromLong(long serialized) {
+		return (int) (serialized >> 38);
+	}
+
+	public static int yFromLong(long serialized) {
+		return (int) (serialized << 52 >> 52);
+	}
+
+	public static int zFromLong(long serialized) {
+		return (int) (serialized << 26 >> 38);
+	}
+
+	public static BetterBlockPos deserializeFromLong(long serialized) {
+		return new BetterBlockPos(xFromLong(serialized), yFromLong(serialized), zFromLong(serialized));
+	}
+
 	public final int x;
 
 	public final int y;
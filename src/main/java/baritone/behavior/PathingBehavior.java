@@ -17,11 +17,14 @@ import java.util.Optional;
 import java.util.concurrent.LinkedBlockingQueue;
 import baritone.Baritone;
 import baritone.api.behavior.IPathingBehavior;
+import baritone.api.event.events.BlockChangeEvent;
+import baritone.api.event.events.ChunkEvent;
 import baritone.api.event.events.PathEvent;
 import baritone.api.event.events.PlayerUpdateEvent;
 import baritone.api.event.events.RenderEvent;
 import baritone.api.event.events.SprintStateEvent;
 import baritone.api.event.events.TickEvent;
+import baritone.api.event.events.type.EventState;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.goals.GoalXZ;
@@ -37,12 +40,13 @@ import baritone.pathing.movement.MovementHelper;
 import baritone.pathing.path.PathExecutor;
 import baritone.utils.PathRenderer;
 import baritone.utils.PathingCommandContext;
+import baritone.utils.pathing.DynamicAvoidance;
 import baritone.utils.pathing.Favoring;
 import net.minecraft.util.math.BlockPos;
 
 public final class PathingBehavior extends Behavior implements IPathingBehavior, Helper {
 
-	private static AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context) {
+	static AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context, DynamicAvoidance dynamicAvoidance) {
 		Goal transformed = goal;
 		if (Baritone.settings().simplifyUnloadedYCoord.value && goal instanceof IGoalRenderPos) {
 			BlockPos pos = ((IGoalRenderPos) goal).getGoalPos();
@@ -50,7 +54,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 				transformed = new GoalXZ(pos.getX(), pos.getZ());
 			}
 		}
-		Favoring favoring = new Favoring(context.getBaritone().getPlayerContext(), previous, context);
+		Favoring favoring = new Favoring(context.getBaritone().getPlayerContext(), previous, context, dynamicAvoidance);
 		return new AStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
 	}
 
@@ -79,10 +83,23 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 
 	private final LinkedBlockingQueue<PathEvent> toDispatch = new LinkedBlockingQueue<>();
 
+	private final DynamicAvoidance dynamicAvoidance = new DynamicAvoidance();
+
+	/**
+	 * The next segment most recently published by the anytime plan ahead in progress, if any. Guarded by pathPlanLock
+	 */
+	private PathExecutor anytimeNext;
+
+	private final SpeculativePlanner speculativePlanner = new SpeculativePlanner(this);
+
 	public PathingBehavior(Baritone baritone) {
 		super(baritone);
 	}
 
+	public DynamicAvoidance getDynamicAvoidance() { // NOT exposed on public api
+		return dynamicAvoidance;
+	}
+
 	public boolean calcFailedLastTick() { // NOT exposed on public api
 		return calcFailedLastTick;
 	}
@@ -144,10 +161,16 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 			primaryTimeout = Baritone.settings().planAheadPrimaryTimeoutMS.value;
 			failureTimeout = Baritone.settings().planAheadFailureTimeoutMS.value;
 		}
-		AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), context);
+		// the field is cleared while idle, and the first tick of a search is spent right around the start where nearby mobs matter most
+		dynamicAvoidance.update(ctx);
+		AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), context, dynamicAvoidance);
 		if (!Objects.equals(pathfinder.getGoal(), goal)) { // will return the exact same object if simplification didn't happen
 			logDebug("Simplifying " + goal.getClass() + " to GoalXZ due to distance");
 		}
+		boolean anytime = current != null && Baritone.settings().planAheadAnytime.value;
+		if (anytime) {
+			pathfinder.enableAnytime(this::publishImprovedNext);
+		}
 		inProgress = pathfinder;
 		Baritone.getExecutor().execute(() -> {
 			if (talkAboutIt) {
@@ -157,9 +180,13 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 			PathCalculationResult calcResult = pathfinder.calculate(primaryTimeout, failureTimeout);
 			synchronized (pathPlanLock) {
 				Optional<PathExecutor> executor = calcResult.getPath().map(p -> new PathExecutor(PathingBehavior.this, p));
-				if (current == null) {
+				if (anytime && anytimeNext != null) {
+					// an earlier version of this segment was already published, the final one can only replace it
+					publishImprovedNext(calcResult);
+					anytimeNext = null;
+				} else if (current == null) {
 					if (executor.isPresent()) {
-						if (executor.get().getPath().positions().contains(expectedSegmentStart)) {
+						if (executor.get().getPath().contains(expectedSegmentStart)) {
 							queuePathEvent(PathEvent.CALC_FINISHED_NOW_EXECUTING);
 							current = executor.get();
 						} else {
@@ -203,6 +230,29 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 		});
 	}
 
+	/**
+	 * Called from the calculating thread with every path an anytime plan ahead finds. The first one fills the next slot, later ones replace it for as long as it hasn't been used
+	 *
+	 * @param result The calculation result
+	 */
+	private void publishImprovedNext(PathCalculationResult result) {
+		synchronized (pathPlanLock) {
+			Optional<PathExecutor> executor = result.getPath().map(p -> new PathExecutor(PathingBehavior.this, p));
+			if (!executor.isPresent() || current == null || !executor.get().getPath().getSrc().equals(current.getPath().getDest()))
+				return;
+			if (next == null && anytimeNext == null) {
+				queuePathEvent(PathEvent.NEXT_SEGMENT_CALC_FINISHED);
+			} else if (next == null || next != anytimeNext) {
+				// the published segment was already used or discarded
+				return;
+			} else {
+				logDebug("Improved planned next path, " + executor.get().getPath().getNumNodesConsidered() + " nodes considered");
+			}
+			next = executor.get();
+			anytimeNext = next;
+		}
+	}
+
 	@Override
 	public void forceCancel() { // exposed on public api because :sob:
 		cancelEverything();
@@ -241,6 +291,22 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 		return current == null || safeToCancel;
 	}
 
+	@Override
+	public void onBlockChange(BlockChangeEvent event) {
+		PathExecutor current = this.current; // only the executor that's ticking has computed anything, the next one starts from scratch anyway
+		if (current != null) {
+			current.onBlockChange(event.getPos());
+		}
+	}
+
+	@Override
+	public void onChunkEvent(ChunkEvent event) {
+		PathExecutor current = this.current;
+		if (current != null && event.getState() == EventState.POST) {
+			current.onChunkChange(event.getX(), event.getZ());
+		}
+	}
+
 	@Override
 	public void onPlayerSprintState(SprintStateEvent event) {
 		if (current != null) {
@@ -279,6 +345,11 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 			return;
 		}
 		expectedSegmentStart = pathStart();
+		if (current != null || inProgress != null) {
+			dynamicAvoidance.update(ctx);
+		} else {
+			dynamicAvoidance.clear();
+		}
 		baritone.getPathingControlManager().preTick();
 		tickPath();
 		dispatchEvents();
@@ -344,6 +415,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 		queuePathEvent(PathEvent.CANCELED);
 		synchronized (pathPlanLock) {
 			getInProgress().ifPresent(AbstractNodeCostSearch::cancel);
+			speculativePlanner.clear();
 			if (current != null) {
 				current = null;
 				next = null;
@@ -386,6 +458,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 			getInProgress().ifPresent(AbstractNodeCostSearch::cancel); // only cancel ours
 			if (!isSafeToCancel())
 				return;
+			speculativePlanner.clear();
 			current = null;
 			next = null;
 		}
@@ -419,10 +492,18 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 					Optional<IPath> currentBest = inProgress.bestPathSoFar();
 					if ((current == null || !current.getPath().getDest().equals(calcFrom)) // if current ends in inProgress's start, then we're ok
 							&& !calcFrom.equals(ctx.playerFeet()) && !calcFrom.equals(expectedSegmentStart) // if current starts in our playerFeet or pathStart, then we're ok
-							&& (!currentBest.isPresent() || !currentBest.get().positions().contains(ctx.playerFeet()) && !currentBest.get().positions().contains(expectedSegmentStart)) // if
+							&& (!currentBest.isPresent() || !currentBest.get().contains(ctx.playerFeet()) && !currentBest.get().contains(expectedSegmentStart)) // if
 					) {
 						// when it was *just* started, currentBest will be empty so we need to also check calcFrom since that's always present
 						inProgress.cancel(); // cancellation doesn't dispatch any events
+					} else if (anytimeNext != null) {
+						if (current == null || next != anytimeNext) {
+							// the planned next segment was started or discarded, there's no point in improving it further
+							inProgress.cancel();
+						} else if (ticksRemainingInSegment(true).get() < Baritone.settings().planAheadAnytimeStopTicks.value) {
+							// it'll be needed soon, settle for the best one so far
+							inProgress.stopImproving();
+						}
 					}
 				}
 			}
@@ -440,7 +521,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 					}
 					return;
 				}
-				if (next != null && !next.getPath().positions().contains(ctx.playerFeet()) && !next.getPath().positions().contains(expectedSegmentStart)) { // can contain either one
+				if (next != null && !next.getPath().contains(ctx.playerFeet()) && !next.getPath().contains(expectedSegmentStart)) { // can contain either one
 					// if the current path failed, we may not actually be on the next one, so make sure
 					logDebug("Discarding next path as it does not contain current position");
 					// for example if we had a nicely planned ahead path that starts where current ends
@@ -451,9 +532,16 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 					queuePathEvent(PathEvent.DISCARD_NEXT);
 					next = null;
 				}
+				if (next == null) {
+					next = speculativePlanner.take(ctx.playerFeet(), expectedSegmentStart);
+					if (next != null) {
+						logDebug("Using a speculatively planned next path instead");
+					}
+				}
 				if (next != null) {
 					logDebug("Continuing on to planned next path");
 					queuePathEvent(PathEvent.CONTINUING_ONTO_PLANNED_NEXT);
+					speculativePlanner.clear();
 					current = next;
 					next = null;
 					current.onTick(); // don't waste a tick doing nothing, get started right away
@@ -476,16 +564,24 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 				// a movement just ended; jump directly onto the next path
 				logDebug("Splicing into planned next path early...");
 				queuePathEvent(PathEvent.SPLICING_ONTO_NEXT_EARLY);
+				speculativePlanner.clear();
 				current = next;
 				next = null;
 				current.onTick();
 				return;
 			}
-			if (Baritone.settings().splicePath.value) {
-				current = current.trySplice(next);
+			boolean improving;
+			synchronized (pathCalcLock) {
+				improving = next != null && next == anytimeNext && inProgress != null;
 			}
-			if (next != null && current.getPath().getDest().equals(next.getPath().getDest())) {
-				next = null;
+			if (!improving) {
+				// splicing an anytime segment consumes it, and it wouldn't be improved anymore, so wait until the search is done with it
+				if (Baritone.settings().splicePath.value) {
+					current = current.trySplice(next);
+				}
+				if (next != null && current.getPath().getDest().equals(next.getPath().getDest())) {
+					next = null;
+				}
 			}
 			synchronized (pathCalcLock) {
 				if (inProgress != null)
@@ -504,6 +600,9 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 					logDebug("Path almost over. Planning ahead...");
 					queuePathEvent(PathEvent.NEXT_SEGMENT_CALC_STARTED);
 					findPathInNewThread(current.getPath().getDest(), false, context);
+					if (Baritone.settings().speculativePlanAhead.value) {
+						speculativePlanner.plan(current, goal);
+					}
 				}
 			}
 		}
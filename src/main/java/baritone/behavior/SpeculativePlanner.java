@@ -0,0 +1,125 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.behavior;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.Helper;
+import baritone.pathing.calc.AbstractNodeCostSearch;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.path.PathExecutor;
+
+/**
+ * Plans next segments ahead of time from a few positions along the current segment, not just from its end.
+ * <p>
+ * If the current segment gets cut short, fails, or the player ends up somewhere else on it, the regular planned next segment doesn't start where we are and has to be discarded. One of these may still fit, which saves a fresh calculation from a standstill. They only run on executor threads that would otherwise be idle.
+ */
+final class SpeculativePlanner implements Helper {
+
+	private final PathingBehavior behavior;
+
+	/**
+	 * Bumped whenever the candidates are thrown away, so that calculations still running for older ones know to drop their results
+	 */
+	private int generation;
+
+	private final List<AbstractNodeCostSearch> running = new ArrayList<>();
+
+	private final List<PathExecutor> finished = new ArrayList<>();
+
+	SpeculativePlanner(PathingBehavior behavior) {
+		this.behavior = behavior;
+	}
+
+	/**
+	 * Starts calculating next segments from positions spread out along the rest of the current segment, replacing any earlier candidates
+	 *
+	 * Has to be called on the client thread, since every candidate gets its own context. They run alongside each other and the regular plan ahead, and the {@link baritone.utils.BlockStateInterface} of a context can't be shared between searches.
+	 *
+	 * @param current The segment being executed
+	 * @param goal    The goal
+	 */
+	synchronized void plan(PathExecutor current, Goal goal) {
+		clear();
+		int candidates = Math.min(Baritone.settings().speculativePlanAheadCandidates.value, Baritone.getIdleExecutorThreads() - 1); // leave a thread for the regular plan ahead
+		if (candidates <= 0) {
+			return;
+		}
+		int generation = this.generation;
+		IPath path = current.getPath();
+		int from = current.getPosition() + 1;
+		int to = path.length() - 1; // the regular plan ahead already starts from the end
+		List<BetterBlockPos> starts = new ArrayList<>();
+		for (int i = 1; i <= candidates; i++) {
+			int index = from + (to - from) * i / (candidates + 1);
+			if (index >= from && index < to && (starts.isEmpty() || !starts.get(starts.size() - 1).equals(path.positions().get(index)))) {
+				starts.add(path.positions().get(index));
+			}
+		}
+		long primaryTimeout = Baritone.settings().planAheadPrimaryTimeoutMS.value;
+		long failureTimeout = Baritone.settings().planAheadFailureTimeoutMS.value;
+		for (BetterBlockPos start : starts) {
+			CalculationContext context = new CalculationContext(behavior.baritone, true);
+			AbstractNodeCostSearch pathfinder = PathingBehavior.createPathfinder(start, goal, path, context, behavior.getDynamicAvoidance());
+			running.add(pathfinder);
+			Baritone.getExecutor().execute(() -> {
+				synchronized (this) {
+					if (this.generation != generation) {
+						// cancelled before it even started
+						return;
+					}
+				}
+				Optional<IPath> result = pathfinder.calculate(primaryTimeout, failureTimeout).getPath();
+				synchronized (this) {
+					running.remove(pathfinder);
+					if (this.generation == generation && result.isPresent()) {
+						finished.add(new PathExecutor(behavior, result.get()));
+					}
+				}
+			});
+		}
+		logDebug("Speculatively planning ahead from " + starts.size() + " positions along the current path");
+	}
+
+	/**
+	 * Takes a finished candidate that can be continued onto from where the player is, and throws away the rest
+	 *
+	 * @param feet          Where the player is
+	 * @param expectedStart Where the next segment is expected to start
+	 * @return The candidate, or {@code null} if none fit
+	 */
+	synchronized PathExecutor take(BetterBlockPos feet, BetterBlockPos expectedStart) {
+		PathExecutor result = null;
+		for (PathExecutor candidate : finished) {
+			if (candidate.getPath().contains(feet) || candidate.getPath().contains(expectedStart)) {
+				result = candidate;
+				break;
+			}
+		}
+		clear();
+		return result;
+	}
+
+	/**
+	 * Cancels every candidate still being calculated and drops the finished ones
+	 */
+	synchronized void clear() {
+		generation++;
+		running.forEach(AbstractNodeCostSearch::cancel);
+		running.clear();
+		finished.clear();
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import baritone.utils.pathing.CachedBlockType;
+
+/**
+ * Merges the region caches of several cache directories into one, keeping the most recently cached version of every chunk.
+ * <p>
+ * This works on the raw region format and never decodes any block, so it doesn't need a running client and can be run standalone through {@link #main(String[])}, for example to pre-seed the cache of a fresh bot with what other bots have already seen.
+ */
+public final class CacheMerger {
+
+	private static final Pattern REGION_FILE = Pattern.compile("^r\\.(-?\\d+)\\.(-?\\d+)\\.bcr$");
+
+	/**
+	 * A single chunk, exactly as it's laid out in a region file
+	 */
+	private static final class RawChunk {
+
+		private final byte presence;
+		private final byte[] data;
+		private final String[] overview;
+		private final byte[] specialBlocks;
+		private long cacheTimestamp;
+
+		private RawChunk(byte presence, byte[] data, String[] overview, byte[] specialBlocks) {
+			this.presence = presence;
+			this.data = data;
+			this.overview = overview;
+			this.specialBlocks = specialBlocks;
+		}
+	}
+
+	/**
+	 * Merges every region found in the source directories into the destination directory. The destination may be one of the sources.
+	 *
+	 * @param sources     The cache directories to read from, e.g. {@code .minecraft/baritone/<server>/DIM0/cache}
+	 * @param destination The cache directory to write the merged regions to
+	 * @return The number of chunks in the merged cache
+	 * @throws IOException if the destination can't be written to. Unreadable source regions are skipped instead.
+	 */
+	public static int merge(List<Path> sources, Path destination) throws IOException {
+		Set<Long> regions = new LinkedHashSet<>();
+		for (Path source : sources) {
+			if (!Files.isDirectory(source)) {
+				System.out.println("Skipping " + source + " since it isn't a directory");
+				continue;
+			}
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(source)) {
+				for (Path file : files) {
+					Matcher matcher = REGION_FILE.matcher(file.getFileName().toString());
+					if (matcher.matches()) {
+						regions.add(Integer.parseInt(matcher.group(1)) & 0xFFFFFFFFL | (Integer.parseInt(matcher.group(2)) & 0xFFFFFFFFL) << 32);
+					}
+				}
+			}
+		}
+
+		Files.createDirectories(destination);
+		int chunks = 0;
+		for (long region : regions) {
+			int regionX = (int) region;
+			int regionZ = (int) (region >> 32);
+			RawChunk[][] merged = new RawChunk[32][32];
+			for (Path source : sources) {
+				Path file = CachedRegion.getRegionFile(source, regionX, regionZ);
+				if (!Files.exists(file)) {
+					continue;
+				}
+				RawChunk[][] read;
+				try {
+					read = read(file);
+				} catch (Exception ex) { // corrupted files can cause all sorts of exceptions, just like in CachedRegion
+					System.out.println("Skipping unreadable region " + file);
+					ex.printStackTrace();
+					continue;
+				}
+				for (int x = 0; x < 32; x++) {
+					for (int z = 0; z < 32; z++) {
+						if (read[x][z] != null && (merged[x][z] == null || read[x][z].cacheTimestamp > merged[x][z].cacheTimestamp)) {
+							merged[x][z] = read[x][z];
+						}
+					}
+				}
+			}
+			chunks += write(merged, CachedRegion.getRegionFile(destination, regionX, regionZ));
+		}
+		System.out.println("Merged " + chunks + " chunks in " + regions.size() + " regions into " + destination);
+		return chunks;
+	}
+
+	private static RawChunk[][] read(Path regionFile) throws IOException {
+		try (FileInputStream fileIn = new FileInputStream(regionFile.toFile()); GZIPInputStream gzipIn = new GZIPInputStream(fileIn, 32768); DataInputStream in = new DataInputStream(gzipIn)) {
+			int magic = in.readInt();
+			if (!CachedRegion.isValidMagic(magic))
+				throw new IOException("Bad magic value " + magic);
+			byte[][] presence = new byte[32][32];
+			byte[][][] data = new byte[32][32][];
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					int isChunkPresent = in.read();
+					switch (isChunkPresent) {
+						case CachedRegion.CHUNK_PRESENT:
+						case CachedRegion.CHUNK_PRESENT_DETAILED:
+							presence[x][z] = (byte) isChunkPresent;
+							data[x][z] = new byte[CachedRegion.chunkSizeInBytes(isChunkPresent == CachedRegion.CHUNK_PRESENT_DETAILED ? CachedBlockType.BITS : 2)];
+							in.readFully(data[x][z]);
+							break;
+						case CachedRegion.CHUNK_NOT_PRESENT:
+							break;
+						default:
+							throw new IOException("Malformed stream");
+					}
+				}
+			}
+			String[][][] overview = new String[32][32][];
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					if (data[x][z] != null) {
+						overview[x][z] = new String[256];
+						for (int i = 0; i < 256; i++) {
+							overview[x][z][i] = in.readUTF();
+						}
+					}
+				}
+			}
+			RawChunk[][] chunks = new RawChunk[32][32];
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					if (data[x][z] != null) {
+						// copy the special block section verbatim, it only needs to be parsed to know where it ends
+						ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+						DataOutputStream out = new DataOutputStream(bytes);
+						int numSpecialBlockTypes = in.readShort() & 0xffff;
+						out.writeShort(numSpecialBlockTypes);
+						for (int i = 0; i < numSpecialBlockTypes; i++) {
+							out.writeUTF(in.readUTF());
+							int numLocations = in.readShort() & 0xffff;
+							out.writeShort(numLocations);
+							if (numLocations == 0) {
+								numLocations = 65536;
+							}
+							byte[] locations = new byte[numLocations * 2];
+							in.readFully(locations);
+							out.write(locations);
+						}
+						chunks[x][z] = new RawChunk(presence[x][z], data[x][z], overview[x][z], bytes.toByteArray());
+					}
+				}
+			}
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					if (chunks[x][z] != null) {
+						chunks[x][z].cacheTimestamp = in.readLong();
+					}
+				}
+			}
+			return chunks;
+		}
+	}
+
+	private static int write(RawChunk[][] chunks, Path regionFile) throws IOException {
+		// write to a temporary file first, the destination could be one of the sources and is possibly in use
+		Path temp = regionFile.resolveSibling(regionFile.getFileName() + ".tmp");
+		int written = 0;
+		try (FileOutputStream fileOut = new FileOutputStream(temp.toFile()); GZIPOutputStream gzipOut = new GZIPOutputStream(fileOut, 16384); DataOutputStream out = new DataOutputStream(gzipOut)) {
+			boolean detailed = false;
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					if (chunks[x][z] != null && chunks[x][z].presence == CachedRegion.CHUNK_PRESENT_DETAILED) {
+						detailed = true;
+					}
+				}
+			}
+			out.writeInt(detailed ? CachedRegion.CACHED_REGION_MAGIC_DETAILED : CachedRegion.CACHED_REGION_MAGIC);
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					if (chunks[x][z] == null) {
+						out.write(CachedRegion.CHUNK_NOT_PRESENT);
+					} else {
+						out.write(chunks[x][z].presence);
+						out.write(chunks[x][z].data);
+						written++;
+					}
+				}
+			}
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					if (chunks[x][z] != null) {
+						for (String block : chunks[x][z].overview) {
+							out.writeUTF(block);
+						}
+					}
+				}
+			}
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					if (chunks[x][z] != null) {
+						out.write(chunks[x][z].specialBlocks);
+					}
+				}
+			}
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					if (chunks[x][z] != null) {
+						out.writeLong(chunks[x][z].cacheTimestamp);
+					}
+				}
+			}
+		}
+		Files.move(temp, regionFile, StandardCopyOption.REPLACE_EXISTING);
+		return written;
+	}
+
+	/**
+	 * Usage: {@code CacheMerger <destination> <source>...}
+	 *
+	 * @param args The destination cache directory, followed by all source cache directories
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: CacheMerger <destination> <source>...");
+			System.out.println("Merges the region caches of every source into the destination, keeping the newest copy of each chunk.");
+			System.out.println("Pass the destination as a source as well to merge into an existing cache.");
+			return;
+		}
+		List<Path> sources = new ArrayList<>();
+		for (int i = 1; i < args.length; i++) {
+			sources.add(Paths.get(args[i]));
+		}
+		merge(sources, Paths.get(args[0]));
+	}
+
+	private CacheMerger() {
+	}
+}
@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 import com.google.common.collect.ImmutableSet;
 import baritone.api.utils.BlockUtils;
+import baritone.utils.pathing.CachedBlockType;
 import baritone.utils.pathing.PathingBlockType;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.block.Block;
@@ -47,6 +48,16 @@ public final class CachedChunk {
 	 */
 	public static final int SIZE_IN_BYTES = SIZE / 8;
 
+	/**
+	 * The size of the chunk data in bytes for the specified number of bits per block
+	 *
+	 * @param bitsPerBlock Either 2 or {@link CachedBlockType#BITS}
+	 * @return The size in bytes
+	 */
+	public static int sizeInBytes(int bitsPerBlock) {
+		return CachedRegion.chunkSizeInBytes(bitsPerBlock);
+	}
+
 	/**
 	 * Returns the raw bit index of the specified position
 	 *
@@ -60,13 +71,29 @@ public final class CachedChunk {
 	}
 
 	/**
-	 * Validates the size of an input {@link BitSet} containing the raw packed chunk data. Sizes that exceed {@link CachedChunk#SIZE} are considered invalid, and thus, an exception will be thrown.
+	 * Returns the raw bit index of the specified position in chunk data with the specified number of bits per block
 	 *
-	 * @param data The raw data
+	 * @param x            The x position
+	 * @param y            The y position
+	 * @param z            The z position
+	 * @param bitsPerBlock Either 2 or {@link CachedBlockType#BITS}
+	 * @return The bit index
+	 */
+	public static int getPositionIndex(int x, int y, int z, int bitsPerBlock) {
+		return (x | z << 4 | y << 8) * bitsPerBlock;
+	}
+
+	/**
+	 * Validates the size of an input {@link BitSet} containing the raw packed chunk data. Sizes that exceed what {@code bitsPerBlock} allows for are considered invalid, and thus, an exception will be thrown.
+	 *
+	 * @param data         The raw data
+	 * @param bitsPerBlock The number of bits per block
 	 * @throws IllegalArgumentException if the bitset size exceeds the maximum size
 	 */
-	private static void validateSize(BitSet data) {
-		if (data.size() > SIZE)
+	private static void validateSize(BitSet data, int bitsPerBlock) {
+		if (bitsPerBlock != 2 && bitsPerBlock != CachedBlockType.BITS)
+			throw new IllegalArgumentException("Invalid number of bits per block " + bitsPerBlock);
+		if (data.size() > sizeInBytes(bitsPerBlock) * 8)
 			throw new IllegalArgumentException("BitSet of invalid length provided");
 	}
 
@@ -83,10 +110,15 @@ public final class CachedChunk {
 	/**
 	 * The actual raw data of this packed chunk.
 	 * <p>
-	 * Each block is expressed as 2 bits giving a total of 16 KiB
+	 * Each block is expressed as 2 bits giving a total of 16 KiB, or as 4 bits in the detailed format giving a total of 32 KiB
 	 */
 	private final BitSet data;
 
+	/**
+	 * The number of bits per block in {@link #data}, either 2 for a {@link PathingBlockType} or 4 for a {@link CachedBlockType}
+	 */
+	public final int bitsPerBlock;
+
 	private final Int2ObjectOpenHashMap<String> special;
 
 	/**
@@ -101,11 +133,16 @@ public final class CachedChunk {
 	public final long cacheTimestamp;
 
 	CachedChunk(int x, int z, BitSet data, BlockState[] overview, Map<String, List<BlockPos>> specialBlockLocations, long cacheTimestamp) {
-		validateSize(data);
+		this(x, z, data, 2, overview, specialBlockLocations, cacheTimestamp);
+	}
+
+	CachedChunk(int x, int z, BitSet data, int bitsPerBlock, BlockState[] overview, Map<String, List<BlockPos>> specialBlockLocations, long cacheTimestamp) {
+		validateSize(data, bitsPerBlock);
 
 		this.x = x;
 		this.z = z;
 		this.data = data;
+		this.bitsPerBlock = bitsPerBlock;
 		this.overview = overview;
 		heightMap = new int[256];
 		this.specialBlockLocations = specialBlockLocations;
@@ -125,8 +162,7 @@ public final class CachedChunk {
 				int index = z << 4 | x;
 				heightMap[index] = 0;
 				for (int y = 256; y >= 0; y--) {
-					int i = getPositionIndex(x, y, z);
-					if (data.get(i) || data.get(i + 1)) {
+					if (getTypeId(getPositionIndex(x, y, z, bitsPerBlock)) != 0) {
 						heightMap[index] = y;
 						break;
 					}
@@ -146,10 +182,10 @@ public final class CachedChunk {
 	}
 
 	public BlockState getBlock(int x, int y, int z, int dimension) {
-		int index = getPositionIndex(x, y, z);
-		PathingBlockType type = getType(index);
+		int index = getPositionIndex(x, y, z, bitsPerBlock);
+		CachedBlockType type = getType(index);
 		int internalPos = z << 4 | x;
-		if (heightMap[internalPos] == y && type != PathingBlockType.AVOID)
+		if (heightMap[internalPos] == y && type != CachedBlockType.AVOID)
 			// we have this exact block, it's a surface block
 			/*
 			 * System.out.println("Saying that " + x + "," + y + "," + z + " is " + state); if (!Minecraft.getInstance().world.getBlockState(new BlockPos(x + this.x * 16, y, z + this.z * 16)).getBlock().equals(state.getBlock())) { throw new IllegalStateException("failed " + Minecraft.getInstance().world.getBlockState(new BlockPos(x + this.x * 16, y, z + this.z * 16)).getBlock() + " " + state.getBlock() + " " + (x + this.x * 16) + " " + y + " " + (z + this.z * 16)); }
@@ -161,7 +197,7 @@ public final class CachedChunk {
 				return BlockUtils.stringToBlockRequired(str).getDefaultState();
 		}
 
-		if (type == PathingBlockType.SOLID) {
+		if (type == CachedBlockType.SOLID) {
 			if (y == 127 && dimension == -1)
 				// nether roof is always unbreakable
 				return Blocks.BEDROCK.getDefaultState();
@@ -171,7 +207,7 @@ public final class CachedChunk {
 				// discourage paths that include breaking blocks below 5 a little more heavily just so that it takes paths breaking what's known to be stone (at 5 or above) instead of what could maybe be bedrock (below 5)
 				return Blocks.OBSIDIAN.getDefaultState();
 		}
-		return ChunkPacker.pathingTypeToBlock(type, dimension);
+		return ChunkPacker.cachedTypeToBlock(type, dimension);
 	}
 
 	public BlockState[] getOverview() {
@@ -182,8 +218,16 @@ public final class CachedChunk {
 		return specialBlockLocations;
 	}
 
-	private PathingBlockType getType(int index) {
-		return PathingBlockType.fromBits(data.get(index), data.get(index + 1));
+	private CachedBlockType getType(int index) {
+		return CachedBlockType.fromId(getTypeId(index));
+	}
+
+	private int getTypeId(int index) {
+		int id = 0;
+		for (int i = 0; i < bitsPerBlock; i++) {
+			id = id << 1 | (data.get(index + i) ? 1 : 0);
+		}
+		return id;
 	}
 
 	private void setSpecial() {
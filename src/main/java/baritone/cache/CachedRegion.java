@@ -28,6 +28,7 @@ import java.util.zip.GZIPOutputStream;
 import baritone.Baritone;
 import baritone.api.cache.ICachedRegion;
 import baritone.api.utils.BlockUtils;
+import baritone.utils.pathing.CachedBlockType;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
 
@@ -37,15 +38,35 @@ import net.minecraft.util.math.BlockPos;
  */
 public final class CachedRegion implements ICachedRegion {
 
-	private static final byte CHUNK_NOT_PRESENT = 0;
-	private static final byte CHUNK_PRESENT = 1;
+	static final byte CHUNK_NOT_PRESENT = 0;
+	static final byte CHUNK_PRESENT = 1;
+	static final byte CHUNK_PRESENT_DETAILED = 2;
 
 	/**
 	 * Magic value to detect invalid cache files, or incompatible cache files saved in an old version of Baritone
 	 */
-	private static final int CACHED_REGION_MAGIC = 456022910;
+	static final int CACHED_REGION_MAGIC = 456022910;
 
-	private static Path getRegionFile(Path cacheDir, int regionX, int regionZ) {
+	/**
+	 * Magic value of regions that contain at least one chunk in the detailed 4-bit format. Older versions of Baritone will refuse to load these instead of misreading them.
+	 */
+	static final int CACHED_REGION_MAGIC_DETAILED = 456022911;
+
+	static boolean isValidMagic(int magic) {
+		return magic == CACHED_REGION_MAGIC || magic == CACHED_REGION_MAGIC_DETAILED;
+	}
+
+	/**
+	 * The size of the data of a chunk in a region file. This lives here rather than in {@link CachedChunk} so that reading region files doesn't initialize {@link CachedChunk}, which needs the game's registries.
+	 *
+	 * @param bitsPerBlock Either 2 or {@link CachedBlockType#BITS}
+	 * @return The size in bytes
+	 */
+	static int chunkSizeInBytes(int bitsPerBlock) {
+		return CachedChunk.SIZE_IN_BYTES / 2 * bitsPerBlock; // a constant, so this doesn't initialize CachedChunk either
+	}
+
+	static Path getRegionFile(Path cacheDir, int regionX, int regionZ) {
 		return Paths.get(cacheDir.toString(), "r." + regionX + "." + regionZ + ".bcr");
 	}
 
@@ -139,13 +160,14 @@ public final class CachedRegion implements ICachedRegion {
 
 			try (FileInputStream fileIn = new FileInputStream(regionFile.toFile()); GZIPInputStream gzipIn = new GZIPInputStream(fileIn, 32768); DataInputStream in = new DataInputStream(gzipIn)) {
 				int magic = in.readInt();
-				if (magic != CACHED_REGION_MAGIC)
+				if (!isValidMagic(magic))
 					// in the future, if we change the format on disk
 					// we can keep converters for the old format
 					// by switching on the magic value, and either loading it normally, or loading through a converter.
 					throw new IOException("Bad magic value " + magic);
 				boolean[][] present = new boolean[32][32];
 				BitSet[][] bitSets = new BitSet[32][32];
+				int[][] bitsPerBlock = new int[32][32];
 				Map<String, List<BlockPos>>[][] location = new Map[32][32];
 				BlockState[][][] overview = new BlockState[32][32][];
 				long[][] cacheTimestamp = new long[32][32];
@@ -154,7 +176,9 @@ public final class CachedRegion implements ICachedRegion {
 						int isChunkPresent = in.read();
 						switch (isChunkPresent) {
 							case CHUNK_PRESENT:
-								byte[] bytes = new byte[CachedChunk.SIZE_IN_BYTES];
+							case CHUNK_PRESENT_DETAILED:
+								bitsPerBlock[x][z] = isChunkPresent == CHUNK_PRESENT_DETAILED ? CachedBlockType.BITS : 2;
+								byte[] bytes = new byte[chunkSizeInBytes(bitsPerBlock[x][z])];
 								in.readFully(bytes);
 								bitSets[x][z] = BitSet.valueOf(bytes);
 								location[x][z] = new HashMap<>();
@@ -221,7 +245,7 @@ public final class CachedRegion implements ICachedRegion {
 							int regionZ = this.z;
 							int chunkX = x + 32 * regionX;
 							int chunkZ = z + 32 * regionZ;
-							chunks[x][z] = new CachedChunk(chunkX, chunkZ, bitSets[x][z], overview[x][z], location[x][z], cacheTimestamp[x][z]);
+							chunks[x][z] = new CachedChunk(chunkX, chunkZ, bitSets[x][z], bitsPerBlock[x][z], overview[x][z], location[x][z], cacheTimestamp[x][z]);
 						}
 					}
 				}
@@ -282,18 +306,27 @@ public final class CachedRegion implements ICachedRegion {
 				Files.createFile(regionFile);
 			}
 			try (FileOutputStream fileOut = new FileOutputStream(regionFile.toFile()); GZIPOutputStream gzipOut = new GZIPOutputStream(fileOut, 16384); DataOutputStream out = new DataOutputStream(gzipOut)) {
-				out.writeInt(CACHED_REGION_MAGIC);
+				// only use the new magic when it's needed, so that 2-bit caches stay readable by older versions
+				boolean detailed = false;
+				for (int x = 0; x < 32; x++) {
+					for (int z = 0; z < 32; z++) {
+						if (chunks[x][z] != null && chunks[x][z].bitsPerBlock != 2) {
+							detailed = true;
+						}
+					}
+				}
+				out.writeInt(detailed ? CACHED_REGION_MAGIC_DETAILED : CACHED_REGION_MAGIC);
 				for (int x = 0; x < 32; x++) {
 					for (int z = 0; z < 32; z++) {
 						CachedChunk chunk = chunks[x][z];
 						if (chunk == null) {
 							out.write(CHUNK_NOT_PRESENT);
 						} else {
-							out.write(CHUNK_PRESENT);
+							out.write(chunk.bitsPerBlock == 2 ? CHUNK_PRESENT : CHUNK_PRESENT_DETAILED);
 							byte[] chunkBytes = chunk.toByteArray();
 							out.write(chunkBytes);
 							// Messy, but fills the empty 0s that should be trailing to fill up the space.
-							out.write(new byte[CachedChunk.SIZE_IN_BYTES - chunkBytes.length]);
+							out.write(new byte[chunkSizeInBytes(chunk.bitsPerBlock) - chunkBytes.length]);
 						}
 					}
 				}
@@ -337,6 +370,10 @@ public final class CachedRegion implements ICachedRegion {
 		}
 	}
 
+	synchronized CachedChunk getChunk(int chunkX, int chunkZ) {
+		return chunks[chunkX][chunkZ];
+	}
+
 	public synchronized void updateCachedChunk(int chunkX, int chunkZ, CachedChunk chunk) {
 		chunks[chunkX][chunkZ] = chunk;
 		hasUnsavedChanges = true;
@@ -13,7 +13,9 @@ package baritone.cache;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import baritone.Baritone;
@@ -22,6 +24,7 @@ import baritone.api.IBaritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWorldData;
 import baritone.api.utils.Helper;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.util.math.BlockPos;
@@ -45,8 +48,18 @@ public final class CachedWorld implements ICachedWorld, Helper {
 				}
 				try {
 					WorldChunk chunk = queue.take();
-					CachedChunk cached = ChunkPacker.pack(chunk);
-					updateCachedChunk(cached);
+					synchronized (diskLock) {
+						long fingerprint = ChunkPacker.fingerprint(chunk);
+						if (isUnchanged(chunk.getPos().x, chunk.getPos().z, fingerprint)) {
+							// identical to what we already have, don't repack it and don't dirty the region
+							continue;
+						}
+						CachedChunk cached = ChunkPacker.pack(chunk);
+						updateCachedChunk(cached);
+						synchronized (packedFingerprints) {
+							packedFingerprints.put(getChunkID(chunk.getPos().x, chunk.getPos().z), fingerprint);
+						}
+					}
 					//System.out.println("Processed chunk at " + chunk.x + "," + chunk.z);
 				} catch (InterruptedException e) {
 					e.printStackTrace();
@@ -76,8 +89,18 @@ public final class CachedWorld implements ICachedWorld, Helper {
 
 	private final LinkedBlockingQueue<WorldChunk> toPack = new LinkedBlockingQueue<>();
 
+	/**
+	 * The fingerprint of every chunk as it was when it was last packed. Entries are dropped whenever the cached data of their chunk is replaced by something else than the packer, or unloaded. Synchronized on itself.
+	 */
+	private final Long2LongOpenHashMap packedFingerprints = new Long2LongOpenHashMap();
+
 	private final int dimension;
 
+	/**
+	 * Held while packing a chunk, while saving and while the region files are rewritten by a merge, so that none of those overlap
+	 */
+	private final Object diskLock = new Object();
+
 	CachedWorld(Path directory, int dimension) {
 		if (!Files.exists(directory)) {
 			try {
@@ -236,6 +259,7 @@ public final class CachedWorld implements ICachedWorld, Helper {
 			if (dist > 1024) {
 				logDebug("Deleting cached region " + region.getX() + "," + region.getZ() + " from ram");
 				cachedRegions.remove(getRegionID(region.getX(), region.getZ()));
+				forgetFingerprints(region.getX(), region.getZ());
 			}
 		}
 	}
@@ -256,6 +280,10 @@ public final class CachedWorld implements ICachedWorld, Helper {
 	@Override
 	public void reloadAllFromDisk() {
 		long start = System.nanoTime() / 1000000L;
+		// what's on disk can be anything now, e.g. after a cache import
+		synchronized (packedFingerprints) {
+			packedFingerprints.clear();
+		}
 		allRegions().forEach(region -> {
 			if (region != null) {
 				region.load(directory);
@@ -265,33 +293,96 @@ public final class CachedWorld implements ICachedWorld, Helper {
 		System.out.println("World load took " + (now - start) + "ms");
 	}
 
+	/**
+	 * Merges this world's cache with another cache directory, keeping the newest copy of every chunk. No chunk is packed and
+	 * nothing is saved while the merge runs, so nothing packed in the meantime is lost and nothing overwrites the merged regions.
+	 *
+	 * @param other     The other cache directory
+	 * @param importing Whether to merge into this world's cache, which is then reloaded, rather than into the other directory
+	 * @return The number of chunks in the merged cache
+	 * @throws IOException If a region couldn't be read or written
+	 */
+	public int merge(Path other, boolean importing) throws IOException {
+		Path cacheDir = Paths.get(directory);
+		synchronized (diskLock) {
+			// get everything we have in ram onto disk first, so the merge sees it
+			save();
+			if (!importing)
+				return CacheMerger.merge(Arrays.asList(other, cacheDir), other);
+			int chunks = CacheMerger.merge(Arrays.asList(cacheDir, other), cacheDir);
+			reloadAllFromDisk();
+			return chunks;
+		}
+	}
+
 	@Override
 	public void save() {
-		if (!Baritone.settings().chunkCaching.value) {
-			System.out.println("Not saving to disk; chunk caching is disabled.");
-			allRegions().forEach(region -> {
+		synchronized (diskLock) {
+			if (!Baritone.settings().chunkCaching.value) {
+				System.out.println("Not saving to disk; chunk caching is disabled.");
+				allRegions().forEach(region -> {
+					if (region != null) {
+						region.removeExpired();
+					}
+				}); // even if we aren't saving to disk, still delete expired old chunks from RAM
+				prune();
+				return;
+			}
+			long start = System.nanoTime() / 1000000L;
+			allRegions().parallelStream().forEach(region -> {
 				if (region != null) {
-					region.removeExpired();
+					region.save(directory);
 				}
-			}); // even if we aren't saving to disk, still delete expired old chunks from RAM
+			});
+			long now = System.nanoTime() / 1000000L;
+			System.out.println("World save took " + (now - start) + "ms");
 			prune();
-			return;
 		}
-		long start = System.nanoTime() / 1000000L;
-		allRegions().parallelStream().forEach(region -> {
-			if (region != null) {
-				region.save(directory);
-			}
-		});
-		long now = System.nanoTime() / 1000000L;
-		System.out.println("World save took " + (now - start) + "ms");
-		prune();
 	}
 
 	public void tryLoadFromDisk(int regionX, int regionZ) {
 		getOrCreateRegion(regionX, regionZ);
 	}
 
+	/**
+	 * Whether the chunk is still cached exactly as it was last packed, meaning packing it again would be a waste.
+	 *
+	 * @param chunkX      The chunk X coordinate
+	 * @param chunkZ      The chunk Z coordinate
+	 * @param fingerprint The current fingerprint of the chunk
+	 * @return Whether the chunk can be skipped
+	 */
+	private boolean isUnchanged(int chunkX, int chunkZ, long fingerprint) {
+		long id = getChunkID(chunkX, chunkZ);
+		synchronized (packedFingerprints) {
+			if (!packedFingerprints.containsKey(id) || packedFingerprints.get(id) != fingerprint)
+				return false;
+		}
+		CachedRegion region = getRegion(chunkX >> 5, chunkZ >> 5);
+		if (region == null)
+			return false;
+		CachedChunk cached = region.getChunk(chunkX & 31, chunkZ & 31);
+		if (cached == null || cached.bitsPerBlock != ChunkPacker.configuredBitsPerBlock())
+			return false;
+		long expiry = Baritone.settings().cachedChunksExpirySeconds.value;
+		// repack once in a while anyway, so that a chunk we keep seeing doesn't expire just because it never changes
+		return expiry < 0 || System.currentTimeMillis() - cached.cacheTimestamp < expiry * 500L;
+	}
+
+	private void forgetFingerprints(int regionX, int regionZ) {
+		synchronized (packedFingerprints) {
+			for (int x = 0; x < 32; x++) {
+				for (int z = 0; z < 32; z++) {
+					packedFingerprints.remove(getChunkID(regionX << 5 | x, regionZ << 5 | z));
+				}
+			}
+		}
+	}
+
+	private static long getChunkID(int chunkX, int chunkZ) {
+		return chunkX & 0xFFFFFFFFL | (chunkZ & 0xFFFFFFFFL) << 32;
+	}
+
 	private void updateCachedChunk(CachedChunk chunk) {
 		CachedRegion region = getOrCreateRegion(chunk.x >> 5, chunk.z >> 5);
 		region.updateCachedChunk(chunk.x & 31, chunk.z & 31, chunk);
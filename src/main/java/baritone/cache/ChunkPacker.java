@@ -16,16 +16,28 @@ import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import baritone.Baritone;
 import baritone.api.utils.BlockUtils;
 import baritone.pathing.movement.MovementHelper;
+import baritone.utils.accessor.IBlockStateContainer;
+import baritone.utils.pathing.CachedBlockType;
 import baritone.utils.pathing.PathingBlockType;
 import net.minecraft.block.AirBlock;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.block.FallingBlock;
+import net.minecraft.block.FenceBlock;
+import net.minecraft.block.FenceGateBlock;
 import net.minecraft.block.FernBlock;
 import net.minecraft.block.FlowerBlock;
+import net.minecraft.block.LadderBlock;
+import net.minecraft.block.LeavesBlock;
+import net.minecraft.block.SoulSandBlock;
+import net.minecraft.block.StairsBlock;
 import net.minecraft.block.TallPlantBlock;
+import net.minecraft.block.VineBlock;
+import net.minecraft.block.WallBlock;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.chunk.ChunkSection;
@@ -39,7 +51,6 @@ import net.minecraft.world.chunk.WorldChunk;
 public final class ChunkPacker {
 
 	private static PathingBlockType getPathingBlockType(BlockState state, WorldChunk chunk, int x, int y, int z) {
-		Block block = state.getBlock();
 		if (MovementHelper.isWater(state)) {
 			// only water source blocks are plausibly usable, flowing water should be avoid
 			// FLOWING_WATER is a waterfall, it doesn't really matter and caching it as AVOID just makes it look wrong
@@ -55,7 +66,17 @@ public final class ChunkPacker {
 			}
 			return PathingBlockType.WATER;
 		}
+		return approximatePathingBlockType(state);
+	}
 
+	/**
+	 * @return The type a block state is cached as at 2 bits per block, without looking at its neighbors. This is exact for
+	 * everything except water, where only a source block that's away from flowing water is cached as {@link PathingBlockType#WATER}
+	 */
+	public static PathingBlockType approximatePathingBlockType(BlockState state) {
+		Block block = state.getBlock();
+		if (MovementHelper.isWater(state))
+			return MovementHelper.possiblyFlowing(state) ? PathingBlockType.AVOID : PathingBlockType.WATER;
 		if (MovementHelper.avoidWalkingInto(state) || MovementHelper.isBottomSlab(state))
 			return PathingBlockType.AVOID;
 		// We used to do an AABB check here
@@ -68,11 +89,47 @@ public final class ChunkPacker {
 		return PathingBlockType.SOLID;
 	}
 
+	private static CachedBlockType getCachedBlockType(BlockState state, WorldChunk chunk, int x, int y, int z) {
+		PathingBlockType type = getPathingBlockType(state, chunk, x, y, z);
+		Block block = state.getBlock();
+		if (type == PathingBlockType.AVOID)
+			return MovementHelper.isBottomSlab(state) ? CachedBlockType.SLAB : CachedBlockType.AVOID;
+		if (type != PathingBlockType.SOLID)
+			return CachedBlockType.fromPathingType(type);
+
+		if (block instanceof FallingBlock)
+			return CachedBlockType.FALLING;
+		if (block instanceof LadderBlock || block instanceof VineBlock)
+			return CachedBlockType.CLIMBABLE;
+		if (block instanceof StairsBlock)
+			return CachedBlockType.STAIRS;
+		if (block instanceof FenceBlock || block instanceof WallBlock || block instanceof FenceGateBlock)
+			return CachedBlockType.FENCE;
+		if (block instanceof LeavesBlock)
+			return CachedBlockType.LEAVES;
+		if (block instanceof SoulSandBlock)
+			return CachedBlockType.SOUL_SAND;
+		float hardness = state.getHardness(null, null);
+		if (hardness < 0)
+			return CachedBlockType.UNBREAKABLE;
+		if (hardness >= 10)
+			return CachedBlockType.HARD;
+		return CachedBlockType.SOLID;
+	}
+
+	/**
+	 * @return The number of bits per block to pack chunks with, according to {@link baritone.api.Settings#chunkCacheBitsPerBlock}
+	 */
+	public static int configuredBitsPerBlock() {
+		return Baritone.settings().chunkCacheBitsPerBlock.value == CachedBlockType.BITS ? CachedBlockType.BITS : 2;
+	}
+
 	public static CachedChunk pack(WorldChunk chunk) {
 		//long start = System.nanoTime() / 1000000L;
 
 		Map<String, List<BlockPos>> specialBlocks = new HashMap<>();
-		BitSet bitSet = new BitSet(CachedChunk.SIZE);
+		int bitsPerBlock = configuredBitsPerBlock();
+		BitSet bitSet = new BitSet(CachedChunk.sizeInBytes(bitsPerBlock) * 8);
 		try {
 			ChunkSection[] chunkInternalStorageArray = chunk.getSectionArray();
 			for (int y0 = 0; y0 < 16; y0++) {
@@ -96,11 +153,18 @@ public final class ChunkPacker {
 					int y = y1 | yReal;
 					for (int z = 0; z < 16; z++) {
 						for (int x = 0; x < 16; x++) {
-							int index = CachedChunk.getPositionIndex(x, y, z);
+							int index = CachedChunk.getPositionIndex(x, y, z, bitsPerBlock);
 							BlockState state = bsc.get(x, y1, z);
-							boolean[] bits = getPathingBlockType(state, chunk, x, y, z).getBits();
-							bitSet.set(index, bits[0]);
-							bitSet.set(index + 1, bits[1]);
+							if (bitsPerBlock == 2) {
+								boolean[] bits = getPathingBlockType(state, chunk, x, y, z).getBits();
+								bitSet.set(index, bits[0]);
+								bitSet.set(index + 1, bits[1]);
+							} else {
+								int id = getCachedBlockType(state, chunk, x, y, z).getId();
+								for (int i = 0; i < bitsPerBlock; i++) {
+									bitSet.set(index + i, (id >> bitsPerBlock - 1 - i & 1) != 0);
+								}
+							}
 							Block block = state.getBlock();
 							if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
 								String name = BlockUtils.blockToString(block);
@@ -123,8 +187,9 @@ public final class ChunkPacker {
             https://www.ibm.com/developerworks/library/j-perry-writing-good-java-code/index.html
             for (int x = 0; x < 16; x++) {
                 for (int y = 255; y >= 0; y--) {
-                    int index = CachedChunk.getPositionIndex(x, y, z);
-                    if (bitSet.get(index) || bitSet.get(index + 1)) {
+                    int index = CachedChunk.getPositionIndex(x, y, z, bitsPerBlock);
+                    int firstSet = bitSet.nextSetBit(index);
+                    if (firstSet >= 0 && firstSet < index + bitsPerBlock) {
                         blocks[z << 4 | x] = getFromChunk(chunk, x, y, z);
                         continue https;
                     }
@@ -133,10 +198,35 @@ public final class ChunkPacker {
             }
         }
         // @formatter:on
-		return new CachedChunk(chunk.getPos().x, chunk.getPos().z, bitSet, blocks, specialBlocks, System.currentTimeMillis());
+		return new CachedChunk(chunk.getPos().x, chunk.getPos().z, bitSet, bitsPerBlock, blocks, specialBlocks, System.currentTimeMillis());
+	}
+
+	/**
+	 * Combines the fingerprints of every section of the chunk. Equal fingerprints mean that packing the chunk again would produce the same result as last time.
+	 *
+	 * @param chunk The chunk
+	 * @return The fingerprint
+	 */
+	public static long fingerprint(WorldChunk chunk) {
+		long hash = 0;
+		for (ChunkSection section : chunk.getSectionArray()) {
+			hash = hash * 0x9E3779B97F4A7C15L + (section == null ? 0 : ((IBlockStateContainer) section.getContainer()).fingerprint());
+		}
+		return hash;
 	}
 
 	public static BlockState pathingTypeToBlock(PathingBlockType type, int dimension) {
+		return cachedTypeToBlock(CachedBlockType.fromPathingType(type), dimension);
+	}
+
+	/**
+	 * Returns a block state that is representative of the specified cached type, i.e. one that movements will cost about the same as any block of that type.
+	 *
+	 * @param type      The cached type
+	 * @param dimension The dimension, to choose the appropriate solid block
+	 * @return The representative block state
+	 */
+	public static BlockState cachedTypeToBlock(CachedBlockType type, int dimension) {
 		switch (type) {
 			case AIR:
 				return Blocks.AIR.getDefaultState();
@@ -155,6 +245,24 @@ public final class ChunkPacker {
 					case 1:
 						return Blocks.END_STONE.getDefaultState();
 				}
+			case FALLING:
+				return Blocks.GRAVEL.getDefaultState();
+			case CLIMBABLE:
+				return Blocks.LADDER.getDefaultState();
+			case SLAB:
+				return Blocks.STONE_SLAB.getDefaultState();
+			case STAIRS:
+				return Blocks.STONE_STAIRS.getDefaultState();
+			case FENCE:
+				return Blocks.OAK_FENCE.getDefaultState();
+			case LEAVES:
+				return Blocks.OAK_LEAVES.getDefaultState();
+			case SOUL_SAND:
+				return Blocks.SOUL_SAND.getDefaultState();
+			case HARD:
+				return Blocks.OBSIDIAN.getDefaultState();
+			case UNBREAKABLE:
+				return Blocks.BEDROCK.getDefaultState();
 			default:
 				return null;
 		}
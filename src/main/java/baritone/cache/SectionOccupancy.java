@@ -0,0 +1,138 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import baritone.api.utils.BlockOptionalMetaLookup;
+import baritone.utils.accessor.IBlockStateContainer;
+import net.minecraft.block.BlockState;
+import net.minecraft.world.chunk.ChunkSection;
+
+/**
+ * The set of block states that actually occur in a chunk section.
+ * <p>
+ * Palettes only ever grow, so a palette can list states that no longer occur anywhere in the section. This summary is built from the unpacked data once and then reused for as long as the section's fingerprint stays the same, so scans can skip whole sections without unpacking them again.
+ */
+final class SectionOccupancy {
+
+	/**
+	 * Keyed by section identity. Sections are replaced when their chunk is reloaded, so stale entries simply get collected.
+	 */
+	private static final Map<ChunkSection, SectionOccupancy> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * The fingerprint of the section when this summary was built
+	 */
+	private final long fingerprint;
+
+	/**
+	 * The palette index of every distinct state present in the section
+	 */
+	private final int[] presentIndices;
+
+	/**
+	 * Every distinct state present in the section, parallel to {@link #presentIndices}
+	 */
+	private final BlockState[] present;
+
+	private SectionOccupancy(long fingerprint, int[] presentIndices, BlockState[] present) {
+		this.fingerprint = fingerprint;
+		this.presentIndices = presentIndices;
+		this.present = present;
+	}
+
+	/**
+	 * Whether the palette of the specified container has any state matching the filter. This is only meaningful for local palettes, the global palette is assumed to possibly contain anything.
+	 *
+	 * @param bsc    The container
+	 * @param filter The filter
+	 * @return {@code false} if the section definitely has no matching block
+	 */
+	static boolean paletteMayContain(IBlockStateContainer bsc, BlockOptionalMetaLookup filter) {
+		int bits = bsc.paletteBits();
+		if (bits > 8)
+			return true;
+
+		int size = 1 << bits;
+		for (int i = 0; i < size; i++) {
+			BlockState state = bsc.getAtPalette(i);
+			if (state != null && filter.has(state))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the occupancy summary of the specified section, rebuilding it if the section changed since it was last computed.
+	 *
+	 * @param section The section
+	 * @return The summary
+	 */
+	static SectionOccupancy of(ChunkSection section) {
+		IBlockStateContainer bsc = (IBlockStateContainer) section.getContainer();
+		long fingerprint = bsc.fingerprint();
+		SectionOccupancy cached = CACHE.get(section);
+		if (cached != null && cached.fingerprint == fingerprint)
+			return cached;
+
+		SectionOccupancy computed = compute(bsc, fingerprint);
+		CACHE.put(section, computed);
+		return computed;
+	}
+
+	private static SectionOccupancy compute(IBlockStateContainer bsc, long fingerprint) {
+		int[] storage = bsc.storageArray();
+		boolean[] used = new boolean[1 << bsc.paletteBits()];
+		int distinct = 0;
+		for (int index : storage) {
+			if (!used[index]) {
+				used[index] = true;
+				distinct++;
+			}
+		}
+
+		int[] presentIndices = new int[distinct];
+		BlockState[] present = new BlockState[distinct];
+		int j = 0;
+		for (int i = 0; i < used.length; i++) {
+			if (used[i]) {
+				presentIndices[j] = i;
+				present[j++] = bsc.getAtPalette(i);
+			}
+		}
+
+		return new SectionOccupancy(fingerprint, presentIndices, present);
+	}
+
+	/**
+	 * Compiles the filter into a lookup table over palette indices, so that testing a block becomes a single array access. The filter itself is only evaluated once per state present in the section.
+	 *
+	 * @param filter      The filter
+	 * @param paletteSize The size of the table, at least {@code 1 << paletteBits} of the section's container
+	 * @return The table, or {@code null} if no block in the section matches the filter
+	 */
+	boolean[] compile(BlockOptionalMetaLookup filter, int paletteSize) {
+		boolean[] matches = null;
+		for (int i = 0; i < present.length; i++) {
+			int index = presentIndices[i];
+			if (index < paletteSize && present[i] != null && filter.has(present[i])) {
+				if (matches == null)
+					matches = new boolean[paletteSize];
+				matches[index] = true;
+			}
+		}
+
+		return matches;
+	}
+}
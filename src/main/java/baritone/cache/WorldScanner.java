@@ -22,7 +22,6 @@ import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.BlockOptionalMetaLookup;
 import baritone.api.utils.IPlayerContext;
 import baritone.utils.accessor.IBlockStateContainer;
-import net.minecraft.block.BlockState;
 import net.minecraft.client.world.ClientChunkManager;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
@@ -96,15 +95,32 @@ public enum WorldScanner implements IWorldScanner {
 			if (section == null || ChunkSection.isEmpty(section)) {
 				continue;
 			}
-			int yReal = y0 << 4;
 			IBlockStateContainer bsc = (IBlockStateContainer) section.getContainer();
+			// reject sections that can't possibly contain what we're looking for before unpacking anything
+			if (!SectionOccupancy.paletteMayContain(bsc, filter)) {
+				continue;
+			}
+			SectionOccupancy occupancy = SectionOccupancy.of(section);
+			int bits = bsc.paletteBits();
+			boolean[] matches = occupancy.compile(filter, 1 << bits);
+			if (matches == null) {
+				continue;
+			}
 			// storageArray uses an optimized algorithm that's faster than getAt
-			// creating this array and then using getAtPalette is faster than even getFast(int index)
+			// creating this array and then indexing into a precompiled table is faster than even getFast(int index)
 			int[] storage = bsc.storageArray();
+			if (bsc.paletteBits() != bits) {
+				// the palette was resized under us (we may be scanning off thread), so the table is too small
+				matches = SectionOccupancy.of(section).compile(filter, 1 << bsc.paletteBits());
+				if (matches == null) {
+					continue;
+				}
+				storage = bsc.storageArray();
+			}
+			int yReal = y0 << 4;
 			final int imax = 1 << 12;
 			for (int i = 0; i < imax; i++) {
-				BlockState state = bsc.getAtPalette(storage[i]);
-				if (filter.has(state)) {
+				if (matches[storage[i]]) {
 					int y = yReal | i >> 8 & 15;
 					if (result.size() >= max) {
 						if (Math.abs(y - playerY) < yLevelThreshold) {
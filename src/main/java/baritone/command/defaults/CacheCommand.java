@@ -0,0 +1,82 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.command.defaults;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import baritone.Baritone;
+import baritone.api.IBaritone;
+import baritone.api.command.Command;
+import baritone.api.command.argument.IArgConsumer;
+import baritone.api.command.datatypes.RelativeFile;
+import baritone.api.command.exception.CommandException;
+import baritone.api.command.exception.CommandInvalidStateException;
+import baritone.api.command.exception.CommandInvalidTypeException;
+import baritone.api.command.helpers.TabCompleteHelper;
+import baritone.cache.WorldData;
+
+public class CacheCommand extends Command {
+
+	public CacheCommand(IBaritone baritone) {
+		super(baritone, "cache");
+	}
+
+	@Override
+	public void execute(String label, IArgConsumer args) throws CommandException {
+		String action = args.getString().toLowerCase();
+		if (!action.equals("import") && !action.equals("export"))
+			throw new CommandInvalidTypeException(args.consumed(), "import or export");
+		File other = args.getDatatypePost(RelativeFile.INSTANCE, RelativeFile.gameDir());
+		args.requireMax(0);
+		WorldData worldData = (WorldData) ctx.worldData();
+		if (worldData == null)
+			throw new CommandInvalidStateException("No world loaded");
+		Path cacheDir = worldData.directory.resolve("cache");
+		Path otherDir = other.toPath();
+		boolean importing = action.equals("import");
+		logDirect(String.format("Started %s in the background", importing ? "importing" : "exporting"));
+		Baritone.getExecutor().execute(() -> {
+			try {
+				int chunks = worldData.cache.merge(otherDir, importing);
+				logDirect(String.format("Done, the merged cache at %s has %d chunks", importing ? cacheDir : otherDir, chunks));
+			} catch (IOException e) {
+				e.printStackTrace();
+				logDirect("Failed: " + e.getMessage());
+			}
+		});
+	}
+
+	@Override
+	public Stream<String> tabComplete(String label, IArgConsumer args) throws CommandException {
+		if (args.hasExactlyOne())
+			return new TabCompleteHelper().append("import", "export").filterPrefix(args.getString()).sortAlphabetically().stream();
+		else if (args.has(2)) {
+			args.get();
+			if (args.hasExactlyOne())
+				return RelativeFile.tabComplete(args, RelativeFile.gameDir());
+		}
+		return Stream.empty();
+	}
+
+	@Override
+	public String getShortDesc() {
+		return "Share cached chunks between clients";
+	}
+
+	@Override
+	public List<String> getLongDesc() {
+		return Arrays.asList("Merges this world's chunk cache with another cache directory, keeping the newest copy of every chunk.", "The directory should be a cache directory like baritone/<server>/DIM0/cache, relative to the game directory.", "The same merge can be run without a client through baritone.cache.CacheMerger.", "", "Usage:", "> cache import <dir> - Merge a cache directory into this world's cache", "> cache export <dir> - Merge this world's cache into a cache directory");
+	}
+}
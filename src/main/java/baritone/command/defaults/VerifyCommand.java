@@ -0,0 +1,94 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.command.defaults;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import baritone.api.IBaritone;
+import baritone.api.command.Command;
+import baritone.api.command.argument.IArgConsumer;
+import baritone.api.command.exception.CommandException;
+import baritone.api.command.exception.CommandInvalidStateException;
+import baritone.api.schematic.VerificationReport;
+import baritone.api.utils.BlockUtils;
+
+public class VerifyCommand extends Command {
+
+	private static final int SHOWN = 5;
+
+	public VerifyCommand(IBaritone baritone) {
+		super(baritone, "verify");
+	}
+
+	@Override
+	public void execute(String label, IArgConsumer args) throws CommandException {
+		args.requireMax(0);
+		if (!baritone.getBuilderProcess().isActive())
+			throw new CommandInvalidStateException("Not building anything");
+		CompletableFuture<VerificationReport> future = baritone.getBuilderProcess().verify();
+		logDirect("Verifying the schematic in the background");
+		future.whenComplete((report, ex) -> {
+			if (ex != null) {
+				ex.printStackTrace();
+				logDirect("Failed: " + ex.getMessage());
+				return;
+			}
+			logDirect(String.format("%d of %d blocks in loaded chunks are correct (%.1f%%)", report.getCorrect(), report.getTotal(), report.getCompletion() * 100));
+			if (report.getApproximateTotal() > 0) {
+				logDirect(String.format("%d of %d blocks in cached chunks look correct, the cache can't tell for sure", report.getApproximateCorrect(), report.getApproximateTotal()));
+			}
+			if (report.getUnknown() > 0) {
+				logDirect(String.format("%d blocks couldn't be checked, their chunks aren't loaded or cached", report.getUnknown()));
+			}
+			int incomplete = 0;
+			int lowest = -1;
+			for (int y = 0; y < report.getHeight(); y++) {
+				if (report.getLayerCorrect(y) < report.getLayerTotal(y)) {
+					incomplete++;
+					if (lowest == -1) {
+						lowest = y;
+					}
+				}
+			}
+			if (incomplete > 0) {
+				logDirect(String.format("%d of %d layers are incomplete, the lowest is layer %d (%d/%d)", incomplete, report.getHeight(), lowest, report.getLayerCorrect(lowest), report.getLayerTotal(lowest)));
+			}
+			if (!report.getIncorrectByBlock().isEmpty()) {
+				logDirect("Incorrect by block: " + report.getIncorrectByBlock().entrySet().stream().limit(SHOWN).map(entry -> BlockUtils.blockToString(entry.getKey()) + " " + entry.getValue()).collect(Collectors.joining(", ")));
+			}
+			for (VerificationReport.Region region : report.getRegions().subList(0, Math.min(SHOWN, report.getRegions().size()))) {
+				logDirect(String.format("%d incorrect between %s and %s", region.incorrect, region.min, region.max));
+			}
+			if (report.getRegions().size() > SHOWN) {
+				logDirect(String.format("and %d more regions", report.getRegions().size() - SHOWN));
+			}
+		});
+	}
+
+	@Override
+	public Stream<String> tabComplete(String label, IArgConsumer args) {
+		return Stream.empty();
+	}
+
+	@Override
+	public String getShortDesc() {
+		return "Check how much of the current build is done";
+	}
+
+	@Override
+	public List<String> getLongDesc() {
+		return Arrays.asList("Compares the whole schematic being built against the loaded and cached chunks, in the background.", "Reports how much is done, which layers are incomplete, which blocks are most often wrong and where the wrong blocks are.", "", "Usage:", "> verify");
+	}
+}
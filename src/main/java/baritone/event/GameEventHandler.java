@@ -13,6 +13,7 @@ package baritone.event;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import baritone.Baritone;
+import baritone.api.event.events.BlockChangeEvent;
 import baritone.api.event.events.BlockInteractEvent;
 import baritone.api.event.events.ChatEvent;
 import baritone.api.event.events.ChunkEvent;
@@ -48,6 +49,11 @@ public final class GameEventHandler implements IEventBus, Helper {
 		this.baritone = baritone;
 	}
 
+	@Override
+	public void onBlockChange(BlockChangeEvent event) {
+		listeners.forEach(l -> l.onBlockChange(event));
+	}
+
 	@Override
 	public void onBlockInteract(BlockInteractEvent event) {
 		listeners.forEach(l -> l.onBlockInteract(event));
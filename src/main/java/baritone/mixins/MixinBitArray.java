@@ -57,4 +57,20 @@ public abstract class MixinBitArray implements IBitArray {
 
 		return out;
 	}
+
+	@Override
+	@Unique
+	public int bitsPerEntry() {
+		return elementBits;
+	}
+
+	@Override
+	@Unique
+	public long contentHash() {
+		long hash = elementBits;
+		for (long word : storage) {
+			hash = hash * 0x9E3779B97F4A7C15L + word;
+		}
+		return hash ^ hash >>> 31;
+	}
 }
@@ -37,4 +37,23 @@ public abstract class MixinBlockStateContainer implements IBlockStateContainer {
 	public int[] storageArray() {
 		return ((IBitArray) data).toArray();
 	}
+
+	@Override
+	public int paletteBits() {
+		return ((IBitArray) data).bitsPerEntry();
+	}
+
+	@Override
+	public long fingerprint() {
+		IBitArray bits = (IBitArray) data;
+		long hash = bits.contentHash();
+		if (bits.bitsPerEntry() <= 8) {
+			// the global palette never changes, local ones are small enough to just hash
+			int size = 1 << bits.bitsPerEntry();
+			for (int i = 0; i < size; i++) {
+				hash = hash * 31 + System.identityHashCode(palette.getByIndex(i));
+			}
+		}
+		return hash;
+	}
 }
@@ -10,6 +10,8 @@
 
 package baritone.pathing.calc;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import baritone.Baritone;
 import baritone.api.pathing.calc.IPath;
@@ -43,7 +45,14 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
 	protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
 		startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
 		startNode.cost = 0;
-		startNode.combinedCost = startNode.estimatedCostToGoal;
+		// an anytime search starts with an inflated heuristic to find a first path quickly, then lowers it step by step (ARA*)
+		boolean anytime = isAnytime();
+		double weight = anytime ? Math.max(1, Baritone.settings().planAheadAnytimeInitialWeight.value) : 1;
+		double weightStep = Baritone.settings().planAheadAnytimeWeightStep.value;
+		int iteration = 0;
+		PathNode incumbent = null; // the cheapest node in the goal found so far, only used by anytime searches
+		List<PathNode> inconsistent = new ArrayList<>(); // nodes that improved after being expanded in this iteration
+		startNode.combinedCost = weight * startNode.estimatedCostToGoal;
 		BinaryHeapOpenSet openSet = new BinaryHeapOpenSet();
 		openSet.insert(startNode);
 		double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
@@ -54,6 +63,7 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
 		MutableMoveResult res = new MutableMoveResult();
 		BetterWorldBorder worldBorder = new BetterWorldBorder(calcContext.world.getWorldBorder());
 		long startTime = System.currentTimeMillis();
+		long snapshotTime = startTime;
 		boolean slowPath = Baritone.settings().slowPath.value;
 		if (slowPath) {
 			logDebug("slowPath is on, path timeout will be " + Baritone.settings().slowPathTimeoutMS.value + "ms instead of " + primaryTimeout + "ms");
@@ -69,10 +79,47 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
 		int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
 		double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
 		Moves[] allMoves = Moves.values();
-		while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+		while ((!openSet.isEmpty() || incumbent != null) && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+			if (incumbent != null && (openSet.isEmpty() || incumbent.cost <= openSet.peekLowest().combinedCost)) {
+				// nothing left in the open set can lead to a cheaper path at this weight, so this iteration is done
+				if (weight <= 1 || openSet.isEmpty() && inconsistent.isEmpty() || stopImprovingRequested()) {
+					break;
+				}
+				logDebug("Anytime iteration with weight " + weight + " found a path costing " + incumbent.cost + " after " + numNodes + " nodes");
+				publishImprovement(incumbent, numNodes);
+				weight = Math.max(1, weight - weightStep);
+				iteration++;
+				List<PathNode> reopen = new ArrayList<>(openSet.size() + inconsistent.size());
+				while (!openSet.isEmpty()) {
+					reopen.add(openSet.removeLowest());
+				}
+				reopen.addAll(inconsistent);
+				inconsistent.clear();
+				for (PathNode node : reopen) {
+					node.combinedCost = node.cost + weight * node.estimatedCostToGoal;
+					if (!node.isOpen()) {
+						openSet.insert(node);
+					}
+				}
+				continue;
+			}
+			if (slowPath) {
+				// every node, that's the point of slowPath
+				publishSnapshot(numNodes);
+			}
 			if ((numNodes & timeCheckInterval - 1) == 0) { // only call this once every 64 nodes (about half a millisecond)
 				long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
-				if (now - failureTimeoutTime >= 0 || !failing && now - primaryTimeoutTime >= 0) {
+				if (!slowPath && ((numNodes & SNAPSHOT_INTERVAL - 1) == 0 || now - snapshotTime >= SNAPSHOT_INTERVAL_MS)) {
+					publishSnapshot(numNodes);
+					snapshotTime = now;
+				}
+				if (incumbent != null) {
+					// we already have a path to the goal, so the primary timeout doesn't apply, we keep improving it until told to stop
+					// but not past the failure timeout, improving for a long segment could otherwise grow the node map without bound
+					if (stopImprovingRequested() || now - failureTimeoutTime >= 0) {
+						break;
+					}
+				} else if (now - failureTimeoutTime >= 0 || !failing && now - primaryTimeoutTime >= 0) {
 					break;
 				}
 			}
@@ -86,9 +133,17 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
 			mostRecentConsidered = currentNode;
 			numNodes++;
 			if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
-				logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
-				return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
+				if (!anytime) {
+					logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+					return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
+				}
+				if (incumbent == null || currentNode.cost < incumbent.cost) {
+					incumbent = currentNode;
+				}
+				// going through one goal to get to another is never cheaper, so don't expand past it
+				continue;
 			}
+			currentNode.closedInIteration = iteration;
 			for (Moves moves : allMoves) {
 				int newX = currentNode.x + moves.xOffset;
 				int newZ = currentNode.z + moves.zOffset;
@@ -125,16 +180,19 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
 				long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
 				if (isFavoring) {
 					// see issue #18
-					actionCost *= favoring.calculate(hashCode);
+					actionCost *= favoring.calculate(res.x, res.y, res.z, hashCode);
 				}
 				PathNode neighbor = getNodeAtPosition(res.x, res.y, res.z, hashCode);
 				double tentativeCost = currentNode.cost + actionCost;
 				if (neighbor.cost - tentativeCost > minimumImprovement) {
 					neighbor.previous = currentNode;
+					neighbor.previousMove = moves;
 					neighbor.cost = tentativeCost;
-					neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+					neighbor.combinedCost = tentativeCost + weight * neighbor.estimatedCostToGoal;
 					if (neighbor.isOpen()) {
 						openSet.update(neighbor);
+					} else if (anytime && neighbor.closedInIteration == iteration) {
+						inconsistent.add(neighbor);
 					} else {
 						openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
 					}
@@ -157,6 +215,10 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
 		System.out.println("Open set size: " + openSet.size());
 		System.out.println("PathNode map size: " + mapSize());
 		System.out.println((int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+		if (incumbent != null) {
+			logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered, final anytime weight " + weight);
+			return Optional.of(new Path(startNode, incumbent, numNodes, goal, calcContext));
+		}
 		Optional<IPath> result = bestSoFar(true, numNodes);
 		if (result.isPresent()) {
 			logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
@@ -11,6 +11,7 @@
 package baritone.pathing.calc;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 import baritone.Baritone;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.calc.IPathFinder;
@@ -44,6 +45,14 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 	 * who cares about a hundredth of a tick? that's half a millisecond for crying out loud!
 	 */
 	protected static final double MIN_IMPROVEMENT = 0.01;
+	/**
+	 * How many nodes to consider between publishing snapshots for other threads to look at
+	 */
+	protected static final int SNAPSHOT_INTERVAL = 1 << 12;
+	/**
+	 * How many milliseconds can pass at most between publishing snapshots, so a slow search, e.g. early on in unloaded terrain, still shows its progress about once a tick
+	 */
+	protected static final long SNAPSHOT_INTERVAL_MS = 50;
 
 	protected final int startX;
 
@@ -70,6 +79,15 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 
 	protected boolean cancelRequested;
 
+	/**
+	 * If not {@code null}, this is an anytime search, and this is called with every improved path found before the search is done
+	 */
+	private Consumer<PathCalculationResult> improvementListener;
+
+	private volatile boolean stopImprovingRequested;
+
+	private volatile PathSnapshot snapshot = PathSnapshot.EMPTY;
+
 	AbstractNodeCostSearch(int startX, int startY, int startZ, Goal goal, CalculationContext context) {
 		this.startX = startX;
 		this.startY = startY;
@@ -79,9 +97,29 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 		map = new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
 	}
 
+	/**
+	 * Safe to call from any thread, see {@link #getSnapshot()}
+	 */
 	@Override
 	public Optional<IPath> bestPathSoFar() {
-		return bestSoFar(false, 0);
+		return snapshot.bestPathSoFar;
+	}
+
+	/**
+	 * @return The latest snapshot published by the calculating thread, which never changes once published
+	 */
+	public PathSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Replaces the snapshot of this calculation. Must only be called from the calculating thread, since it walks the nodes.
+	 *
+	 * @param numNodes The number of nodes considered so far
+	 */
+	protected void publishSnapshot(int numNodes) {
+		Optional<IPath> mostRecent = Optional.ofNullable(mostRecentConsidered).map(node -> new Path(startNode, node, 0, goal, context));
+		snapshot = new PathSnapshot(snapshot.version + 1, numNodes, bestSoFar(false, numNodes), mostRecent);
 	}
 
 	protected Optional<IPath> bestSoFar(boolean logInfo, int numNodes) {
@@ -129,23 +167,7 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 				return new PathCalculationResult(PathCalculationResult.Type.CANCELLATION);
 			if (path == null)
 				return new PathCalculationResult(PathCalculationResult.Type.FAILURE);
-			int previousLength = path.length();
-			path = path.cutoffAtLoadedChunks(context.bsi);
-			if (path.length() < previousLength) {
-				Helper.HELPER.logDebug("Cutting off path at edge of loaded chunks");
-				Helper.HELPER.logDebug("Length decreased by " + (previousLength - path.length()));
-			} else {
-				Helper.HELPER.logDebug("Path ends within loaded chunks");
-			}
-			previousLength = path.length();
-			path = path.staticCutoff(goal);
-			if (path.length() < previousLength) {
-				Helper.HELPER.logDebug("Static cutoff " + previousLength + " to " + path.length());
-			}
-			if (goal.isInGoal(path.getDest()))
-				return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_TO_GOAL, path);
-			else
-				return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_SEGMENT, path);
+			return toResult(path);
 		} catch (Exception e) {
 			Helper.HELPER.logDirect("Pathing exception: " + e);
 			e.printStackTrace();
@@ -156,12 +178,68 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 		}
 	}
 
+	private PathCalculationResult toResult(IPath path) {
+		int previousLength = path.length();
+		path = path.cutoffAtLoadedChunks(context.bsi);
+		if (path.length() < previousLength) {
+			Helper.HELPER.logDebug("Cutting off path at edge of loaded chunks");
+			Helper.HELPER.logDebug("Length decreased by " + (previousLength - path.length()));
+		} else {
+			Helper.HELPER.logDebug("Path ends within loaded chunks");
+		}
+		previousLength = path.length();
+		path = path.staticCutoff(goal);
+		if (path.length() < previousLength) {
+			Helper.HELPER.logDebug("Static cutoff " + previousLength + " to " + path.length());
+		}
+		if (goal.isInGoal(path.getDest()))
+			return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_TO_GOAL, path);
+		else
+			return new PathCalculationResult(PathCalculationResult.Type.SUCCESS_SEGMENT, path);
+	}
+
 	protected abstract Optional<IPath> calculate0(long primaryTimeout, long failureTimeout);
 
 	public void cancel() {
 		cancelRequested = true;
 	}
 
+	/**
+	 * Turns this into an anytime search. Once a path to the goal is found, it's passed to the listener, and the search keeps looking for a cheaper one until {@link #stopImproving()} is called or it can't get any better. The final path is returned from {@link #calculate(long, long)} as usual.
+	 * <p>
+	 * Must be called before the calculation starts. The listener is called from the calculating thread.
+	 *
+	 * @param listener Called with every improved path before the final one
+	 */
+	public void enableAnytime(Consumer<PathCalculationResult> listener) {
+		improvementListener = listener;
+	}
+
+	protected boolean isAnytime() {
+		return improvementListener != null;
+	}
+
+	/**
+	 * Makes an anytime search return the best path to the goal it has found so far. Does nothing if it hasn't found one yet.
+	 */
+	public void stopImproving() {
+		stopImprovingRequested = true;
+	}
+
+	protected boolean stopImprovingRequested() {
+		return stopImprovingRequested;
+	}
+
+	/**
+	 * Post processes a path to the goal that an anytime search found and hands it to the listener
+	 *
+	 * @param end      The node in the goal
+	 * @param numNodes The number of nodes considered so far
+	 */
+	protected void publishImprovement(PathNode end, int numNodes) {
+		improvementListener.accept(toResult(new Path(startNode, end, numNodes, goal, context).postProcess()));
+	}
+
 	/**
 	 * Determines the distance squared from the specified node to the start node. Intended for use in distance comparison, rather than anything that considers the real distance value, hence the "sq".
 	 *
@@ -213,8 +291,11 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 		return map.size();
 	}
 
+	/**
+	 * Safe to call from any thread, see {@link #getSnapshot()}
+	 */
 	@Override
 	public Optional<IPath> pathToMostRecentNodeConsidered() {
-		return Optional.ofNullable(mostRecentConsidered).map(node -> new Path(startNode, node, 0, goal, context));
+		return snapshot.mostRecentConsidered;
 	}
 }
@@ -11,8 +11,8 @@
 package baritone.pathing.calc;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.goals.Goal;
@@ -49,7 +49,15 @@ class Path extends PathBase {
 
 	private final List<Movement> movements;
 
-	private final List<PathNode> nodes;
+	/**
+	 * The cost of getting to each position, as it was when this path was created
+	 */
+	private final double[] costs;
+
+	/**
+	 * The move that produced each position from the one before it, {@code null} for the start
+	 */
+	private final Moves[] moves;
 
 	private final Goal goal;
 
@@ -63,32 +71,36 @@ class Path extends PathBase {
 		this.start = new BetterBlockPos(start.x, start.y, start.z);
 		this.end = new BetterBlockPos(end.x, end.y, end.z);
 		this.numNodes = numNodes;
-		movements = new ArrayList<>();
 		this.goal = goal;
 		this.context = context;
+		// walk the chain twice, once to size the arrays and once to fill them in from the back
+		int length = 0;
+		for (PathNode current = end; current != null; current = current.previous) {
+			length++;
+		}
+		BetterBlockPos[] positions = new BetterBlockPos[length];
+		costs = new double[length];
+		moves = new Moves[length];
 		PathNode current = end;
-		LinkedList<BetterBlockPos> tempPath = new LinkedList<>();
-		LinkedList<PathNode> tempNodes = new LinkedList<>();
-		// Repeatedly inserting to the beginning of an arraylist is O(n^2)
-		// Instead, do it into a linked list, then convert at the end
-		while (current != null) {
-			tempNodes.addFirst(current);
-			tempPath.addFirst(new BetterBlockPos(current.x, current.y, current.z));
+		for (int i = length - 1; i >= 0; i--) {
+			positions[i] = new BetterBlockPos(current.x, current.y, current.z);
+			costs[i] = current.cost;
+			moves[i] = current.previousMove;
 			current = current.previous;
 		}
-		// Can't directly convert from the PathNode pseudo linked list to an array because we don't know how long it is
-		// inserting into a LinkedList<E> keeps track of length, then when we addall (which calls .toArray) it's able
-		// to performantly do that conversion since it knows the length.
-		path = new ArrayList<>(tempPath);
-		nodes = new ArrayList<>(tempNodes);
+		// the path can't be resized, and the start and end are already taken care of
+		positions[0] = this.start;
+		positions[length - 1] = this.end;
+		path = Arrays.asList(positions);
+		movements = new ArrayList<>(length - 1);
 	}
 
 	private boolean assembleMovements() {
 		if (path.isEmpty() || !movements.isEmpty())
 			throw new IllegalStateException();
 		for (int i = 0; i < path.size() - 1; i++) {
-			double cost = nodes.get(i + 1).cost - nodes.get(i).cost;
-			Movement move = runBackwards(path.get(i), path.get(i + 1), cost);
+			double cost = costs[i + 1] - costs[i];
+			Movement move = build(i, cost);
 			if (move == null)
 				return true;
 			else {
@@ -149,15 +161,33 @@ class Path extends PathBase {
 		return this;
 	}
 
+	private Movement build(int index, double cost) {
+		BetterBlockPos src = path.get(index);
+		BetterBlockPos dest = path.get(index + 1);
+		Moves recorded = moves[index + 1];
+		if (recorded != null) {
+			Movement move = recorded.apply0(context, src);
+			// moves with a dynamic destination could end up somewhere else if the world changed since
+			if (move.getDest().equals(dest)) {
+				return withCost(move, cost);
+			}
+		}
+		return runBackwards(src, dest, cost);
+	}
+
+	private Movement withCost(Movement move, double cost) {
+		// have to calculate the cost at calculation time so we can accurately judge whether a cost increase happened between cached calculation and real execution
+		// however, taking into account possible favoring that could skew the node cost, we really want the stricter limit of the two
+		// so we take the minimum of the path node cost difference, and the calculated cost
+		move.override(Math.min(move.calculateCost(context), cost));
+		return move;
+	}
+
 	private Movement runBackwards(BetterBlockPos src, BetterBlockPos dest, double cost) {
 		for (Moves moves : Moves.values()) {
 			Movement move = moves.apply0(context, src);
 			if (move.getDest().equals(dest)) {
-				// have to calculate the cost at calculation time so we can accurately judge whether a cost increase happened between cached calculation and real execution
-				// however, taking into account possible favoring that could skew the node cost, we really want the stricter limit of the two
-				// so we take the minimum of the path node cost difference, and the calculated cost
-				move.override(Math.min(move.calculateCost(context), cost));
-				return move;
+				return withCost(move, cost);
 			}
 		}
 		// this is no longer called from bestPathSoFar, now it's in postprocessing
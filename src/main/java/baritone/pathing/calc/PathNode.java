@@ -13,6 +13,7 @@ package baritone.pathing.calc;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.movement.ActionCosts;
 import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.movement.Moves;
 
 /**
  * A node in the path, containing the cost and steps to get to it.
@@ -48,11 +49,21 @@ public final class PathNode {
 	 */
 	public PathNode previous;
 
+	/**
+	 * The move that got here from {@link #previous}, so the path can be turned into movements without trying every move again
+	 */
+	public Moves previousMove;
+
 	/**
 	 * Where is this node in the array flattenization of the binary heap? Needed for decrease-key operations.
 	 */
 	public int heapPosition;
 
+	/**
+	 * In an anytime search, the last iteration in which this node was expanded. A node that improves after being expanded in the current iteration waits for the next iteration instead of being reopened
+	 */
+	public int closedInIteration;
+
 	public PathNode(int x, int y, int z, Goal goal) {
 		previous = null;
 		cost = ActionCosts.COST_INF;
@@ -60,6 +71,7 @@ public final class PathNode {
 		if (Double.isNaN(estimatedCostToGoal))
 			throw new IllegalStateException(goal + " calculated implausible heuristic");
 		heapPosition = -1;
+		closedInIteration = -1;
 		this.x = x;
 		this.y = y;
 		this.z = z;
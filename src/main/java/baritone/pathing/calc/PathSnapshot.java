@@ -0,0 +1,49 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import java.util.Optional;
+import baritone.api.pathing.calc.IPath;
+
+/**
+ * What a calculation in progress looked like at some point, published by the calculating thread so that other threads can look at it without walking nodes that are still being changed
+ */
+public final class PathSnapshot {
+
+	static final PathSnapshot EMPTY = new PathSnapshot(0, 0, Optional.empty(), Optional.empty());
+
+	/**
+	 * Increases with every snapshot published by the same calculation
+	 */
+	public final int version;
+
+	/**
+	 * How many nodes had been considered when this was taken
+	 */
+	public final int numNodes;
+
+	/**
+	 * @see AbstractNodeCostSearch#bestPathSoFar()
+	 */
+	public final Optional<IPath> bestPathSoFar;
+
+	/**
+	 * @see AbstractNodeCostSearch#pathToMostRecentNodeConsidered()
+	 */
+	public final Optional<IPath> mostRecentConsidered;
+
+	PathSnapshot(int version, int numNodes, Optional<IPath> bestPathSoFar, Optional<IPath> mostRecentConsidered) {
+		this.version = version;
+		this.numNodes = numNodes;
+		this.bestPathSoFar = bestPathSoFar;
+		this.mostRecentConsidered = mostRecentConsidered;
+	}
+}
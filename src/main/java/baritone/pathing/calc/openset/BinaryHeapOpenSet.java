@@ -100,6 +100,15 @@ public final class BinaryHeapOpenSet implements IOpenSet {
 		return result;
 	}
 
+	/**
+	 * @return The node with the lowest combined cost, without removing it
+	 */
+	public PathNode peekLowest() {
+		if (size == 0)
+			throw new IllegalStateException();
+		return array[1];
+	}
+
 	public int size() {
 		return size;
 	}
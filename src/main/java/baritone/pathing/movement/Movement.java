@@ -215,6 +215,10 @@ public abstract class Movement implements IMovement, MovementHelper {
 		return positionsToBreak;
 	}
 
+	public BetterBlockPos toPlaceAll() {
+		return positionToPlace;
+	}
+
 	public List<BlockPos> toPlace(BlockStateInterface bsi) {
 		if (toPlaceCached != null)
 			return toPlaceCached;
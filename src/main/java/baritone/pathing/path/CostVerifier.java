@@ -0,0 +1,155 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.path;
+
+import java.util.List;
+import baritone.Baritone;
+import baritone.api.IBaritone;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.pathing.movement.IMovement;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Movement;
+
+/**
+ * Re-costs a window of upcoming movements on an executor thread, against a thread safe copy of the loaded chunks.
+ * <p>
+ * This catches movements further ahead that became impossible or much more expensive than when the path was calculated, without adding work to the client thread beyond taking the chunk copy. Verification reruns whenever the player moves along the path or a block or chunk that one of the verified movements looks at changes, with at most one run in flight at a time and at most one chunk copy every {@link baritone.api.Settings#backgroundCostVerificationInterval} ticks.
+ */
+final class CostVerifier {
+
+	/**
+	 * The first problem a verification run found
+	 */
+	static final class Finding {
+
+		/**
+		 * The index of the movement in the path
+		 */
+		final int index;
+
+		final double originalCost;
+
+		/**
+		 * The cost now, {@link ActionCosts#COST_INF} if the movement became impossible
+		 */
+		final double currentCost;
+
+		private Finding(int index, double originalCost, double currentCost) {
+			this.index = index;
+			this.originalCost = originalCost;
+			this.currentCost = currentCost;
+		}
+
+		boolean impossible() {
+			return currentCost >= ActionCosts.COST_INF;
+		}
+	}
+
+	private final IBaritone baritone;
+
+	private final List<IMovement> movements;
+
+	/**
+	 * Only touched on the client thread
+	 */
+	private boolean stale = true;
+
+	private int verifiedFrom = -1;
+
+	/**
+	 * The end of the window of the last run, exclusive
+	 */
+	private int verifiedTo = -1;
+
+	private int ticksUntilNextRun;
+
+	private volatile boolean running;
+
+	/**
+	 * The problem found by the latest run, replaced by every run that finishes, so a problem that has since gone away doesn't linger
+	 */
+	private volatile Finding finding;
+
+	CostVerifier(IBaritone baritone, List<IMovement> movements) {
+		this.baritone = baritone;
+		this.movements = movements;
+	}
+
+	/**
+	 * Something in the world that a movement looks at changed, so if that movement was verified by the last run, the movements need to be verified again
+	 *
+	 * @param index The index of the movement
+	 */
+	void markStale(int index) {
+		if (index > verifiedFrom && index < verifiedTo) {
+			stale = true;
+		}
+	}
+
+	/**
+	 * Starts a verification run of the movements after the specified one, if anything changed since the last run and none is running right now
+	 *
+	 * @param pathPosition The index of the movement being executed
+	 */
+	void tick(int pathPosition) {
+		if (ticksUntilNextRun > 0) {
+			ticksUntilNextRun--;
+		}
+		if (running || ticksUntilNextRun > 0 || !stale && verifiedFrom == pathPosition) {
+			return;
+		}
+		int from = pathPosition + 1;
+		int to = Math.min(from + Baritone.settings().backgroundCostVerificationWindow.value, movements.size());
+		if (from >= to) {
+			return;
+		}
+		// take the original costs here, the cost of the movement being executed is overwritten on this thread
+		double[] originalCosts = new double[to - from];
+		for (int i = from; i < to; i++) {
+			originalCosts[i - from] = ((Movement) movements.get(i)).getCost();
+		}
+		CalculationContext context = new CalculationContext(baritone, true);
+		double maxCostIncrease = Baritone.settings().maxCostIncrease.value;
+		stale = false;
+		verifiedFrom = pathPosition;
+		verifiedTo = to;
+		ticksUntilNextRun = Baritone.settings().backgroundCostVerificationInterval.value;
+		running = true;
+		finding = null; // whatever the last run found is about to be out of date
+		Baritone.getExecutor().execute(() -> {
+			try {
+				Finding found = null;
+				for (int i = from; i < to; i++) {
+					Movement movement = (Movement) movements.get(i);
+					double currentCost = movement.calculateCost(context);
+					double originalCost = originalCosts[i - from];
+					// like for the current movement, a cost increase of a movement that was calculated while loaded is just the path interfering with itself
+					if (currentCost >= ActionCosts.COST_INF || !movement.calculatedWhileLoaded() && currentCost - originalCost > maxCostIncrease) {
+						found = new Finding(i, originalCost, currentCost);
+						break;
+					}
+				}
+				finding = found;
+			} finally {
+				running = false;
+			}
+		});
+	}
+
+	/**
+	 * @return The problem found by the latest verification run, if it wasn't taken yet and no later run has started since
+	 */
+	Finding poll() {
+		Finding result = finding;
+		finding = null;
+		return result;
+	}
+}
@@ -13,8 +13,7 @@ package baritone.pathing.path;
 import static baritone.api.pathing.movement.MovementStatus.FAILED;
 import static baritone.api.pathing.movement.MovementStatus.SUCCESS;
 import static baritone.api.pathing.movement.MovementStatus.UNREACHABLE;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -41,6 +40,10 @@ import baritone.pathing.movement.movements.MovementDiagonal;
 import baritone.pathing.movement.movements.MovementFall;
 import baritone.pathing.movement.movements.MovementTraverse;
 import baritone.utils.BlockStateInterface;
+import baritone.utils.pathing.AvoidanceField;
+import baritone.utils.pathing.BlockPosMultiset;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.util.Pair;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
@@ -122,12 +125,39 @@ public class PathExecutor implements IPathExecutor, Helper {
 	private Double currentMovementOriginalCostEstimate;
 	private Integer costEstimateIndex;
 	private boolean failed;
-	private boolean recalcBP = true;
 
-	private HashSet<BlockPos> toBreak = new HashSet<>();
-	private HashSet<BlockPos> toPlace = new HashSet<>();
+	/**
+	 * Starts out true, since any mob that was on the path when it was calculated was already taken into account
+	 */
+	private boolean mobOnPathLastTick = true;
+
+	private final BlockPosMultiset toBreak = new BlockPosMultiset();
+	private final BlockPosMultiset toPlace = new BlockPosMultiset();
+	private final BlockPosMultiset toWalkInto = new BlockPosMultiset();
+
+	/**
+	 * What each movement currently contributes to {@link #toBreak}, {@link #toPlace} and {@link #toWalkInto}. Only the movements from {@link #contributingFrom} on contribute, like the sets they were computed as a whole before.
+	 */
+	private final List<BlockPos>[] contributedBreak;
+	private final List<BlockPos>[] contributedPlace;
+	private final List<BlockPos>[] contributedWalkInto;
+
+	/**
+	 * -1 until the sets are first computed
+	 */
+	private int contributingFrom = -1;
+
+	/**
+	 * For every position that one of the movements looks at, the indices of those movements. Built along with the sets.
+	 */
+	private Long2ObjectOpenHashMap<IntArrayList> watchers;
+
+	/**
+	 * Movements whose blocks changed since their contribution was last computed
+	 */
+	private final BitSet dirty = new BitSet();
 
-	private HashSet<BlockPos> toWalkInto = new HashSet<>();
+	private final CostVerifier costVerifier;
 
 	private PathingBehavior behavior;
 
@@ -135,11 +165,16 @@ public class PathExecutor implements IPathExecutor, Helper {
 
 	private boolean sprintNextTick;
 
+	@SuppressWarnings("unchecked")
 	public PathExecutor(PathingBehavior behavior, IPath path) {
 		this.behavior = behavior;
 		ctx = behavior.ctx;
 		this.path = path;
 		pathPosition = 0;
+		contributedBreak = new List[path.movements().size()];
+		contributedPlace = new List[path.movements().size()];
+		contributedWalkInto = new List[path.movements().size()];
+		costVerifier = new CostVerifier(behavior.baritone, path.movements());
 	}
 
 	private void cancel() {
@@ -155,10 +190,20 @@ public class PathExecutor implements IPathExecutor, Helper {
 	}
 
 	private Pair<Double, BlockPos> closestPathPos(IPath path) {
+		// the only thing that matters about the distance is whether it's over MAX_DIST_FROM_PATH
+		// so if a position around where we are is close enough, the rest of the path doesn't need to be looked at
+		Pair<Double, BlockPos> nearby = closestPathPos(path, pathPosition - 2, pathPosition + 2);
+		if (nearby.getRight() != null && nearby.getLeft() <= MAX_DIST_FROM_PATH)
+			return nearby;
+		return closestPathPos(path, 0, path.movements().size() - 1);
+	}
+
+	private Pair<Double, BlockPos> closestPathPos(IPath path, int firstMovement, int lastMovement) {
 		double best = -1;
 		BlockPos bestPos = null;
-		for (IMovement movement : path.movements()) {
-			for (BlockPos pos : ((Movement) movement).getValidPositions()) {
+		List<IMovement> movements = path.movements();
+		for (int i = Math.max(firstMovement, 0); i <= lastMovement && i < movements.size(); i++) {
+			for (BlockPos pos : ((Movement) movements.get(i)).getValidPositions()) {
 				double dist = VecUtils.entityDistanceToCenter(ctx.player(), pos);
 				if (dist < best || best == -1) {
 					best = dist;
@@ -183,6 +228,7 @@ public class PathExecutor implements IPathExecutor, Helper {
 				ret.costEstimateIndex = costEstimateIndex - cutoffAmt;
 			}
 			ret.ticksOnCurrent = ticksOnCurrent;
+			ret.mobOnPathLastTick = mobOnPathLastTick;
 			return ret;
 		}
 		return this;
@@ -272,45 +318,7 @@ public class PathExecutor implements IPathExecutor, Helper {
 			cancel();
 			return false;
 		}
-		//long start = System.nanoTime() / 1000000L;
-		BlockStateInterface bsi = new BlockStateInterface(ctx);
-		for (int i = pathPosition - 10; i < pathPosition + 10; i++) {
-			if (i < 0 || i >= path.movements().size()) {
-				continue;
-			}
-			Movement m = (Movement) path.movements().get(i);
-			List<BlockPos> prevBreak = m.toBreak(bsi);
-			List<BlockPos> prevPlace = m.toPlace(bsi);
-			List<BlockPos> prevWalkInto = m.toWalkInto(bsi);
-			m.resetBlockCache();
-			if (!prevBreak.equals(m.toBreak(bsi))) {
-				recalcBP = true;
-			}
-			if (!prevPlace.equals(m.toPlace(bsi))) {
-				recalcBP = true;
-			}
-			if (!prevWalkInto.equals(m.toWalkInto(bsi))) {
-				recalcBP = true;
-			}
-		}
-		if (recalcBP) {
-			HashSet<BlockPos> newBreak = new HashSet<>();
-			HashSet<BlockPos> newPlace = new HashSet<>();
-			HashSet<BlockPos> newWalkInto = new HashSet<>();
-			for (int i = pathPosition; i < path.movements().size(); i++) {
-				Movement m = (Movement) path.movements().get(i);
-				newBreak.addAll(m.toBreak(bsi));
-				newPlace.addAll(m.toPlace(bsi));
-				newWalkInto.addAll(m.toWalkInto(bsi));
-			}
-			toBreak = newBreak;
-			toPlace = newPlace;
-			toWalkInto = newWalkInto;
-			recalcBP = false;
-		}
-		/*
-		 * long end = System.nanoTime() / 1000000L; if (end - start > 0) { System.out.println("Recalculating break and place took " + (end - start) + "ms"); }
-		 */
+		updateBlockSets();
 		if (pathPosition < path.movements().size() - 1) {
 			IMovement next = path.movements().get(pathPosition + 1);
 			if (!behavior.baritone.bsi.worldContainsLoadedChunk(next.getDest().x, next.getDest().z)) {
@@ -332,6 +340,19 @@ public class PathExecutor implements IPathExecutor, Helper {
 				}
 			}
 		}
+		if (Baritone.settings().backgroundCostVerification.value) {
+			CostVerifier.Finding finding = canCancel ? costVerifier.poll() : null;
+			if (finding != null && finding.index > pathPosition) {
+				if (finding.impossible()) {
+					logDebug("Something has changed in the world and movement " + finding.index + " has become impossible. Cancelling.");
+				} else {
+					logDebug("Movement " + finding.index + " original cost " + finding.originalCost + " current cost " + finding.currentCost + ". Cancelling.");
+				}
+				cancel();
+				return true;
+			}
+			costVerifier.tick(pathPosition);
+		}
 		double currentCost = movement.recalculateCost(behavior.secretInternalGetCalculationContext());
 		if (currentCost >= ActionCosts.COST_INF && canCancel) {
 			logDebug("Something has changed in the world and this movement has become impossible. Cancelling.");
@@ -345,6 +366,11 @@ public class PathExecutor implements IPathExecutor, Helper {
 			cancel();
 			return true;
 		}
+		if (mobMovedOntoPath() && canCancel) {
+			logDebug("A mob moved onto the upcoming path. Cancelling to path around it.");
+			cancel();
+			return true;
+		}
 		if (shouldPause()) {
 			logDebug("Pausing since current best path is a backtrack");
 			clearKeys();
@@ -427,6 +453,29 @@ public class PathExecutor implements IPathExecutor, Helper {
 			return false;
 	}
 
+	/**
+	 * Whether a mob has just moved onto one of the next few positions of the path. This only reports the tick it happens on, so a mob that stays in the way (or that the recalculated path has to go past anyway) doesn't cause a cancel every tick.
+	 *
+	 * @return Whether the path should be repaired around a mob
+	 */
+	private boolean mobMovedOntoPath() {
+		AvoidanceField mobs = behavior.getDynamicAvoidance().get();
+		boolean onPath = false;
+		if (!mobs.isEmpty()) {
+			int lookahead = Baritone.settings().mobAvoidanceRepairLookahead.value;
+			for (int i = pathPosition + 1; i <= pathPosition + lookahead && i < path.length(); i++) {
+				BetterBlockPos pos = path.positions().get(i);
+				if (mobs.hasCenterNear(pos.x, pos.y, pos.z, 1)) {
+					onPath = true;
+					break;
+				}
+			}
+		}
+		boolean movedOnto = onPath && !mobOnPathLastTick;
+		mobOnPathLastTick = onPath;
+		return movedOnto;
+	}
+
 	private boolean shouldPause() {
 		Optional<AbstractNodeCostSearch> current = behavior.getInProgress();
 		if (!current.isPresent())
@@ -534,10 +583,10 @@ public class PathExecutor implements IPathExecutor, Helper {
 			Pair<Vec3d, BlockPos> data = overrideFall((MovementFall) current);
 			if (data != null) {
 				BetterBlockPos fallDest = new BetterBlockPos(data.getRight());
-				if (!path.positions().contains(fallDest))
+				if (!path.contains(fallDest))
 					throw new IllegalStateException();
 				if (ctx.playerFeet().equals(fallDest)) {
-					pathPosition = path.positions().indexOf(fallDest);
+					pathPosition = path.indexOf(fallDest);
 					onChangeInPathPosition();
 					onTick();
 					return true;
@@ -567,7 +616,7 @@ public class PathExecutor implements IPathExecutor, Helper {
 				// we could be falling through water, which could be unsafe to splice
 				return false; // so don't
 		}
-		int index = path.positions().indexOf(ctx.playerFeet());
+		int index = path.indexOf(ctx.playerFeet());
 		if (index == -1)
 			return false;
 		pathPosition = index; // jump directly to current position
@@ -576,15 +625,131 @@ public class PathExecutor implements IPathExecutor, Helper {
 	}
 
 	public Set<BlockPos> toBreak() {
-		return Collections.unmodifiableSet(toBreak);
+		return toBreak.asSet();
 	}
 
 	public Set<BlockPos> toPlace() {
-		return Collections.unmodifiableSet(toPlace);
+		return toPlace.asSet();
 	}
 
 	public Set<BlockPos> toWalkInto() {
-		return Collections.unmodifiableSet(toWalkInto);
+		return toWalkInto.asSet();
+	}
+
+	/**
+	 * Marks every movement that looks at the specified position, so its blocks get recomputed on the next tick
+	 *
+	 * @param pos The position that changed
+	 */
+	public void onBlockChange(BlockPos pos) {
+		if (watchers == null)
+			return; // nothing computed yet, the first tick looks at everything anyway
+		IntArrayList indices = watchers.get(BetterBlockPos.serializeToLong(pos.getX(), pos.getY(), pos.getZ()));
+		if (indices != null) {
+			for (int i = 0; i < indices.size(); i++) {
+				dirty.set(indices.getInt(i));
+				costVerifier.markStale(indices.getInt(i));
+			}
+		}
+	}
+
+	/**
+	 * Marks every movement in the specified chunk, since a chunk being loaded or unloaded changes all of its blocks at once without firing any block change
+	 *
+	 * @param chunkX The chunk x
+	 * @param chunkZ The chunk z
+	 */
+	public void onChunkChange(int chunkX, int chunkZ) {
+		if (watchers == null)
+			return;
+		List<IMovement> movements = path.movements();
+		for (int i = 0; i < movements.size(); i++) {
+			IMovement m = movements.get(i);
+			if (m.getSrc().x >> 4 == chunkX && m.getSrc().z >> 4 == chunkZ || m.getDest().x >> 4 == chunkX && m.getDest().z >> 4 == chunkZ) {
+				dirty.set(i);
+				costVerifier.markStale(i);
+			}
+		}
+	}
+
+	private void watch(BlockPos pos, int index) {
+		// whether a block can be walked through or on can depend on the block above it, e.g. water or a lily pad, and on the one below it, e.g. for snow layers, so changes right above and below count too
+		for (int dy = -1; dy <= 1; dy++) {
+			IntArrayList indices = watchers.computeIfAbsent(BetterBlockPos.serializeToLong(pos.getX(), pos.getY() + dy, pos.getZ()), key -> new IntArrayList(2));
+			if (indices.isEmpty() || indices.getInt(indices.size() - 1) != index) {
+				indices.add(index);
+			}
+		}
+	}
+
+	/**
+	 * Brings {@link #toBreak}, {@link #toPlace} and {@link #toWalkInto} up to date. The first call computes every movement, after that only movements whose blocks changed are recomputed, and moving along the path just adds or removes the contributions of the movements passed.
+	 */
+	private void updateBlockSets() {
+		List<IMovement> movements = path.movements();
+		BlockStateInterface bsi = null;
+		if (watchers == null) {
+			watchers = new Long2ObjectOpenHashMap<>();
+			bsi = new BlockStateInterface(ctx);
+			for (int i = 0; i < movements.size(); i++) {
+				Movement m = (Movement) movements.get(i);
+				for (BlockPos pos : m.toBreakAll()) {
+					watch(pos, i);
+				}
+				if (m.toPlaceAll() != null) {
+					watch(m.toPlaceAll(), i);
+				}
+				m.resetBlockCache();
+				m.toBreak(bsi);
+				m.toPlace(bsi);
+				m.toWalkInto(bsi);
+			}
+			contributingFrom = movements.size();
+			dirty.clear();
+		}
+		while (contributingFrom > pathPosition) {
+			contribute(--contributingFrom);
+		}
+		while (contributingFrom < pathPosition && contributingFrom < movements.size()) {
+			retract(contributingFrom++);
+		}
+		for (int i = dirty.nextSetBit(0); i >= 0 && i < movements.size(); i = dirty.nextSetBit(i + 1)) {
+			if (bsi == null) {
+				bsi = new BlockStateInterface(ctx);
+			}
+			Movement m = (Movement) movements.get(i);
+			boolean contributing = contributedBreak[i] != null;
+			if (contributing) {
+				retract(i);
+			}
+			m.resetBlockCache();
+			m.toBreak(bsi);
+			m.toPlace(bsi);
+			m.toWalkInto(bsi);
+			if (contributing) {
+				contribute(i);
+			}
+		}
+		dirty.clear();
+	}
+
+	private void contribute(int index) {
+		Movement m = (Movement) path.movements().get(index);
+		contributedBreak[index] = m.toBreakCached;
+		contributedPlace[index] = m.toPlaceCached;
+		contributedWalkInto[index] = m.toWalkIntoCached;
+		toBreak.addAll(contributedBreak[index]);
+		toPlace.addAll(contributedPlace[index]);
+		toWalkInto.addAll(contributedWalkInto[index]);
+	}
+
+	private void retract(int index) {
+		toBreak.removeAll(contributedBreak[index]);
+		toPlace.removeAll(contributedPlace[index]);
+		toWalkInto.removeAll(contributedWalkInto[index]);
+		contributedBreak[index] = null;
+		contributedPlace[index] = null;
+		contributedWalkInto[index] = null;
 	}
 
 	public PathExecutor trySplice(PathExecutor next) {
@@ -598,6 +763,7 @@ public class PathExecutor implements IPathExecutor, Helper {
 			ret.currentMovementOriginalCostEstimate = currentMovementOriginalCostEstimate;
 			ret.costEstimateIndex = costEstimateIndex;
 			ret.ticksOnCurrent = ticksOnCurrent;
+			ret.mobOnPathLastTick = mobOnPathLastTick;
 			return ret;
 		}).orElseGet(this::cutIfTooLong); // dont actually call cutIfTooLong every tick if we won't actually use it, use a method reference
 	}
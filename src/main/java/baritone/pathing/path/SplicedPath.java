@@ -12,7 +12,6 @@ package baritone.pathing.path;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import baritone.api.pathing.calc.IPath;
@@ -28,10 +27,9 @@ public class SplicedPath extends PathBase {
 			return Optional.empty();
 		if (!first.getDest().equals(second.getSrc()))
 			return Optional.empty();
-		HashSet<BetterBlockPos> secondPos = new HashSet<>(second.positions());
 		int firstPositionInSecond = -1;
 		for (int i = 0; i < first.length() - 1; i++) { // overlap in the very last element is fine (and required) so only go up to first.length() - 1
-			if (secondPos.contains(first.positions().get(i))) {
+			if (second.contains(first.positions().get(i))) {
 				firstPositionInSecond = i;
 				break;
 			}
@@ -42,7 +40,7 @@ public class SplicedPath extends PathBase {
 		} else {
 			firstPositionInSecond = first.length() - 1;
 		}
-		int positionInSecond = second.positions().indexOf(first.positions().get(firstPositionInSecond));
+		int positionInSecond = second.indexOf(first.positions().get(firstPositionInSecond));
 		if (!allowOverlapCutoff && positionInSecond != 0)
 			throw new IllegalStateException();
 		List<BetterBlockPos> positions = new ArrayList<>();
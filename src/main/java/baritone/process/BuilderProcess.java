@@ -14,11 +14,17 @@ import static baritone.api.pathing.movement.ActionCosts.COST_INF;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import baritone.Baritone;
+import baritone.api.event.events.BlockChangeEvent;
+import baritone.api.event.events.ChunkEvent;
+import baritone.api.event.events.type.EventState;
+import baritone.api.event.listener.AbstractGameEventListener;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.goals.GoalBlock;
 import baritone.api.pathing.goals.GoalComposite;
@@ -29,6 +35,7 @@ import baritone.api.process.PathingCommandType;
 import baritone.api.schematic.FillSchematic;
 import baritone.api.schematic.ISchematic;
 import baritone.api.schematic.IStaticSchematic;
+import baritone.api.schematic.VerificationReport;
 import baritone.api.schematic.format.ISchematicFormat;
 import baritone.api.utils.BRotationUtils;
 import baritone.api.utils.BetterBlockPos;
@@ -41,16 +48,27 @@ import baritone.pathing.movement.MovementHelper;
 import baritone.utils.BaritoneProcessHelper;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.PathingCommandContext;
+import baritone.utils.schematic.CompiledSchematic;
 import baritone.utils.schematic.MapArtSchematic;
+import baritone.utils.schematic.SchematicDiff;
 import baritone.utils.schematic.SchematicSystem;
+import baritone.utils.schematic.SchematicVerifier;
 import baritone.utils.schematic.schematica.SchematicaHelper;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.block.AirBlock;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.FluidBlock;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
 import net.minecraft.fluid.BaseFluid;
 import net.minecraft.item.BlockItem;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemPlacementContext;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.ItemUsageContext;
@@ -64,6 +82,7 @@ import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.world.BlockView;
 
 public final class BuilderProcess extends BaritoneProcessHelper implements IBuilderProcess {
 
@@ -264,6 +283,52 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		}
 	}
 
+	/**
+	 * What a planning run on an executor thread worked out, for the tick handler to act on
+	 */
+	private static final class Plan {
+
+		/**
+		 * Which build this was planned for, see {@link BuilderProcess#planEpoch}
+		 */
+		private final int epoch;
+
+		/**
+		 * Incorrect blocks around the player that could be broken, in the order to try them
+		 */
+		private final List<BetterBlockPos> toBreak;
+
+		/**
+		 * Incorrect positions around the player that could be placed at, in the order to try them
+		 */
+		private final List<BetterBlockPos> toPlace;
+
+		/**
+		 * Where to go next, or null if there's nothing we can do
+		 */
+		private final Goal goal;
+
+		private Plan(int epoch, List<BetterBlockPos> toBreak, List<BetterBlockPos> toPlace, Goal goal) {
+			this.epoch = epoch;
+			this.toBreak = toBreak;
+			this.toPlace = toPlace;
+			this.goal = goal;
+		}
+	}
+
+	/**
+	 * The points on each side of a block {@link #possibleToPlace} tries to aim at, by {@link Direction#ordinal()}
+	 */
+	private static final Vec3d[][] AIM_POINTS = new Vec3d[Direction.values().length][];
+
+	static {
+		for (Direction side : Direction.values()) {
+			AIM_POINTS[side.ordinal()] = aabbSideMultipliers(side);
+		}
+	}
+
+	private static final int[] NO_SLOTS = new int[0];
+
 	private static Vec3d[] aabbSideMultipliers(Direction side) {
 		switch (side) {
 			case UP:
@@ -282,15 +347,36 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		}
 	}
 
-	private HashSet<BetterBlockPos> incorrectPositions;
-	private LongOpenHashSet observedCompleted; // positions that are completed
-	// even if they're out of
-	// render distance and we can't
-	// make sure right now
+	/**
+	 * Serialized with {@link BetterBlockPos#serializeToLong(int, int, int)}
+	 */
+	private LongOpenHashSet incorrectPositions;
+
+	/**
+	 * Which positions of the schematic are incorrect, even if they're out of render distance and we can't make sure right now
+	 */
+	private SchematicDiff diff;
+
+	/**
+	 * The position in the sweep of the cell being worked on, see {@link SchematicDiff#collectIncorrectCell(int, int, Predicate)}
+	 */
+	private int cell;
+
+	/**
+	 * The position in the sweep of the first of the cells in a row that turned out to have nothing we can do, or -1, and whether moving on from there has wrapped around the sweep back to it
+	 */
+	private int skipStart = -1;
+	private boolean skippedAround;
+
+	/**
+	 * Whether to move on to the next cell even though there still are incorrect positions
+	 */
+	private boolean skipCell;
+
 	private String name;
-	private ISchematic realSchematic;
+	private CompiledSchematic realSchematic;
 
-	private ISchematic schematic;
+	private CompiledSchematic schematic;
 
 	private Vec3i origin;
 
@@ -304,8 +390,68 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 
 	private List<BlockState> approxPlaceable;
 
+	/**
+	 * Bumped whenever what's being built changes, so plans made for something else are dropped
+	 */
+	private int planEpoch;
+
+	private volatile Plan plan;
+
+	private volatile boolean planning;
+
+	/**
+	 * Why the last planning run failed, until the tick handler reports it
+	 */
+	private volatile Exception planFailure;
+
+	/**
+	 * Which of the {@link #AIM_POINTS} could be hit from where the player's eyes are, per position to place at. Bits {@code 5 * face + point} are the points that were hit and bit {@code 32 + face} is set once every point of a face has been tried, where face indexes {@link Movement#HORIZONTALS_BUT_ALSO_DOWN_____SO_EVERY_DIRECTION_EXCEPT_UP}.
+	 * <p>
+	 * Cleared whenever a block nearby changes or the eyes move to another cell of a grid {@link #AIM_CACHE_PRECISION} times finer than blocks, including by sneaking, since whether a raytrace hits depends on the exact eye position. Points that were hit are still raytraced again before they're used, so all this can skip is a retry of a point that missed from practically the same spot.
+	 */
+	private final Long2LongOpenHashMap aimCache = new Long2LongOpenHashMap();
+
+	/**
+	 * The eye position the {@link #aimCache} is for, in {@link #AIM_CACHE_PRECISION}ths of a block
+	 */
+	private int aimCacheEyeX;
+	private int aimCacheEyeY;
+	private int aimCacheEyeZ;
+
+	private static final int AIM_CACHE_PRECISION = 8;
+
+	/**
+	 * The item in every hotbar slot as of the last time {@link #hotbarSlots} was built
+	 */
+	private final Item[] hotbarItems = new Item[9];
+
+	/**
+	 * The hotbar slots with a block item for each block, and all slots with a block item
+	 */
+	private final Reference2ObjectOpenHashMap<Block, int[]> hotbarSlots = new Reference2ObjectOpenHashMap<>();
+	private int[] blockItemSlots = NO_SLOTS;
+
 	public BuilderProcess(Baritone baritone) {
 		super(baritone);
+		baritone.getGameEventHandler().registerEventListener(new AbstractGameEventListener() {
+			@Override
+			public void onBlockChange(BlockChangeEvent event) {
+				if (diff != null) {
+					diff.onBlockChange(event.getPos().getX(), event.getPos().getY(), event.getPos().getZ());
+				}
+				// this can block, or unblock, the line of sight to anything we could place at
+				if (!aimCache.isEmpty() && ctx.player() != null && event.getPos().isWithinDistance(ctx.playerHead(), 16)) {
+					aimCache.clear();
+				}
+			}
+
+			@Override
+			public void onChunkEvent(ChunkEvent event) {
+				if (diff != null && event.getState() == EventState.POST && (event.getType() == ChunkEvent.Type.POPULATE_FULL || event.getType() == ChunkEvent.Type.POPULATE_PARTIAL)) {
+					diff.onChunkLoad(event.getX(), event.getZ());
+				}
+			}
+		});
 	}
 
 	private List<BlockState> approxPlaceable(int size) {
@@ -324,15 +470,20 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		return result;
 	}
 
-	private Goal assemble(BuilderCalculationContext bcc, List<BlockState> approxPlaceable) {
-		List<BetterBlockPos> placeable = new ArrayList<>();
+	private Goal assemble(BuilderCalculationContext bcc, LongOpenHashSet incorrectPositions, List<BlockState> approxPlaceable, List<Box> entities) {
+		LongOpenHashSet placeable = new LongOpenHashSet();
 		List<BetterBlockPos> breakable = new ArrayList<>();
 		List<BetterBlockPos> sourceLiquids = new ArrayList<>();
-		incorrectPositions.forEach(pos -> {
-			BlockState state = bcc.bsi.get0(pos);
+		LongIterator it = incorrectPositions.iterator();
+		while (it.hasNext()) {
+			long serialized = it.nextLong();
+			int x = BetterBlockPos.xFromLong(serialized);
+			int y = BetterBlockPos.yFromLong(serialized);
+			int z = BetterBlockPos.zFromLong(serialized);
+			BlockState state = bcc.bsi.get0(x, y, z);
 			if (state.getBlock() instanceof AirBlock) {
-				if (approxPlaceable.contains(bcc.getSchematic(pos.x, pos.y, pos.z, state))) {
-					placeable.add(pos);
+				if (approxPlaceable.contains(bcc.getSchematic(x, y, z, state))) {
+					placeable.add(serialized);
 				}
 			} else {
 				if (state.getBlock() instanceof FluidBlock) {
@@ -343,21 +494,26 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 					if (!MovementHelper.possiblyFlowing(state)) {
 						// if it's a source block then we want to replace it
 						// with a throwaway
-						sourceLiquids.add(pos);
+						sourceLiquids.add(new BetterBlockPos(x, y, z));
 					}
 				} else {
-					breakable.add(pos);
+					breakable.add(new BetterBlockPos(x, y, z));
 				}
 			}
-		});
+		}
 		List<Goal> toBreak = new ArrayList<>();
 		breakable.forEach(pos -> toBreak.add(breakGoal(pos, bcc)));
 		List<Goal> toPlace = new ArrayList<>();
-		placeable.forEach(pos -> {
-			if (!placeable.contains(pos.down()) && !placeable.contains(pos.down(2))) {
-				toPlace.add(placementGoal(pos, bcc));
+		it = placeable.iterator();
+		while (it.hasNext()) {
+			long serialized = it.nextLong();
+			int x = BetterBlockPos.xFromLong(serialized);
+			int y = BetterBlockPos.yFromLong(serialized);
+			int z = BetterBlockPos.zFromLong(serialized);
+			if (!placeable.contains(BetterBlockPos.serializeToLong(x, y - 1, z)) && !placeable.contains(BetterBlockPos.serializeToLong(x, y - 2, z))) {
+				toPlace.add(placementGoal(new BetterBlockPos(x, y, z), bcc, entities));
 			}
-		});
+		}
 		sourceLiquids.forEach(pos -> toPlace.add(new GoalBlock(pos.up())));
 
 		if (!toPlace.isEmpty())
@@ -411,7 +567,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 	@Override
 	public void build(String name, ISchematic schematic, Vec3i origin) {
 		this.name = name;
-		this.schematic = schematic;
+		this.schematic = CompiledSchematic.compile(schematic);
 		realSchematic = null;
 		int x = origin.getX();
 		int y = origin.getY();
@@ -429,7 +585,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		paused = false;
 		layer = 0;
 		numRepeats = 0;
-		observedCompleted = new LongOpenHashSet();
+		resetDiff();
 	}
 
 	@Override
@@ -461,61 +617,75 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		return paused ? "Builder Paused" : "Building " + name;
 	}
 
-	private void fullRecalc(BuilderCalculationContext bcc) {
-		incorrectPositions = new HashSet<>();
-		for (int y = 0; y < schematic.heightY(); y++) {
-			for (int z = 0; z < schematic.lengthZ(); z++) {
-				for (int x = 0; x < schematic.widthX(); x++) {
-					int blockX = x + origin.getX();
-					int blockY = y + origin.getY();
-					int blockZ = z + origin.getZ();
-					BlockState current = bcc.bsi.get0(blockX, blockY, blockZ);
-					if (!schematic.inSchematic(x, y, z, current)) {
-						continue;
-					}
-					if (bcc.bsi.worldContainsLoadedChunk(blockX, blockZ)) { // check
-																			// if
-																			// its
-																			// in
-																			// render
-																			// distance,
-																			// not
-																			// if
-																			// its
-																			// in
-																			// cache
-																			// we can directly observe this block, it is in render
-																			// distance
-						if (valid(bcc.bsi.get0(blockX, blockY, blockZ), schematic.desiredState(x, y, z, current, approxPlaceable))) {
-							observedCompleted.add(BetterBlockPos.longHash(blockX, blockY, blockZ));
-						} else {
-							incorrectPositions.add(new BetterBlockPos(blockX, blockY, blockZ));
-							observedCompleted.remove(BetterBlockPos.longHash(blockX, blockY, blockZ));
-							if (incorrectPositions.size() > Baritone.settings().incorrectSize.value)
-								return;
-						}
-						continue;
-					}
-					// this is not in render distance
-					if (!observedCompleted.contains(BetterBlockPos.longHash(blockX, blockY, blockZ))) {
-						// and we've never seen this position be correct
-						// therefore mark as incorrect
-						incorrectPositions.add(new BetterBlockPos(blockX, blockY, blockZ));
-						if (incorrectPositions.size() > Baritone.settings().incorrectSize.value)
-							return;
-					}
+	private void resetDiff() {
+		if (diff != null) {
+			diff.cancel();
+		}
+		diff = null;
+		incorrectPositions = null;
+		planEpoch++;
+		cell = 0;
+		skipStart = -1;
+		skippedAround = false;
+		skipCell = false;
+	}
+
+	private SchematicDiff createDiff() {
+		ISchematic full = realSchematic != null ? realSchematic : schematic; // the diff outlives the layers
+		Vec3i origin = this.origin;
+		return new SchematicDiff(origin, full.widthX(), full.heightY(), full.lengthZ(), new SchematicDiff.Check() {
+			@Override
+			public boolean inSchematic(int x, int y, int z, BlockState current) {
+				return full.inSchematic(x - origin.getX(), y - origin.getY(), z - origin.getZ(), current);
+			}
+
+			@Override
+			public boolean isCorrect(int x, int y, int z, BlockState current) {
+				return valid(current, full.desiredState(x - origin.getX(), y - origin.getY(), z - origin.getZ(), current, approxPlaceable));
+			}
+		});
+	}
+
+	private void collectIncorrect(BuilderCalculationContext bcc) {
+		Predicate<BetterBlockPos> consumer = pos -> {
+			BlockState current = bcc.bsi.get0(pos.x, pos.y, pos.z);
+			BlockState desired = bcc.getSchematic(pos.x, pos.y, pos.z, current);
+			if (desired == null) {
+				return false; // not in the current layer
+			}
+			if (bcc.bsi.worldContainsLoadedChunk(pos.x, pos.z) && valid(current, desired)) {
+				// the desired state can depend on what we have in our inventory, so this may have changed without the block changing
+				diff.set(pos.x, pos.y, pos.z, false);
+				return false;
+			}
+			incorrectPositions.add(BetterBlockPos.serializeToLong(pos.x, pos.y, pos.z));
+			return true;
+		};
+		if (Baritone.settings().buildInCells.value) {
+			int next = diff.collectIncorrectCell(cell, Baritone.settings().incorrectSize.value, consumer);
+			if (next != -1) {
+				if (skipStart != -1 && (next == skipStart || sweepDistance(skipStart, next) < sweepDistance(skipStart, cell))) {
+					// every cell with something to do has been tried since we started skipping
+					skippedAround = true;
 				}
+				cell = next;
 			}
+		} else {
+			diff.collectIncorrect(Baritone.settings().incorrectSize.value, consumer);
 		}
 	}
 
+	private int sweepDistance(int from, int to) {
+		return Math.floorMod(to - from, diff.cellCount());
+	}
+
 	@Override
 	public List<BlockState> getApproxPlaceable() {
 		return new ArrayList<>(approxPlaceable);
 	}
 
-	private OptionalInt hasAnyItemThatWouldPlace(BlockState desired, HitResult result, Rotation rot) {
-		for (int i = 0; i < 9; i++) {
+	private OptionalInt hasAnyItemThatWouldPlace(BlockState desired, HitResult result, Rotation rot, int[] slots) {
+		for (int i : slots) {
 			ItemStack stack = ctx.player().inventory.main.get(i);
 			if (stack.isEmpty() || !(stack.getItem() instanceof BlockItem)) {
 				continue;
@@ -547,6 +717,15 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		return schematic != null;
 	}
 
+	@Override
+	public CompletableFuture<VerificationReport> verify() {
+		if (schematic == null)
+			throw new IllegalStateException("Not building anything");
+		CompiledSchematic full = realSchematic != null ? realSchematic : schematic; // the whole schematic, not just the current layer
+		// verify against a copy, so the states it sees can't be remembered by the replace mask as what was there before building
+		return SchematicVerifier.verify(full.detach(), origin, approxPlaceable != null ? approxPlaceable : approxPlaceable(36), this::valid, () -> new BlockStateInterface(ctx, true));
+	}
+
 	@Override
 	public boolean isPaused() {
 		return paused;
@@ -561,7 +740,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		layer = 0;
 		numRepeats = 0;
 		paused = false;
-		observedCompleted = null;
+		resetDiff();
 	}
 
 	@Override
@@ -579,12 +758,6 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 			if (realSchematic == null) {
 				realSchematic = schematic;
 			}
-			ISchematic realSchematic = this.realSchematic; // wrap this
-															// properly, dont
-															// just have the
-															// inner class
-															// refer to the
-															// builderprocess.this
 			int y1Inclusive;
 			int y2Inclusive;
 			// layer = 0 should be nothing
@@ -596,38 +769,19 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 				y2Inclusive = layer - 1;
 				y1Inclusive = 0;
 			}
-			schematic = new ISchematic() {
-				@Override
-				public BlockState desiredState(int x, int y, int z, BlockState current, List<BlockState> approxPlaceable) {
-					return realSchematic.desiredState(x, y, z, current, BuilderProcess.this.approxPlaceable);
-				}
-
-				@Override
-				public int heightY() {
-					return realSchematic.heightY();
-				}
-
-				@Override
-				public boolean inSchematic(int x, int y, int z, BlockState currentState) {
-					return ISchematic.super.inSchematic(x, y, z, currentState) && y >= y1Inclusive && y <= y2Inclusive && realSchematic.inSchematic(x, y, z, currentState);
-				}
-
-				@Override
-				public int lengthZ() {
-					return realSchematic.lengthZ();
-				}
-
-				@Override
-				public int widthX() {
-					return realSchematic.widthX();
-				}
-			};
+			schematic = realSchematic.restrictY(y1Inclusive, y2Inclusive);
 		}
 		BuilderCalculationContext bcc = new BuilderCalculationContext();
-		if (!recalc(bcc)) {
+		boolean anyIncorrect = recalc(bcc);
+		if (!anyIncorrect && diff.isSeeding()) {
+			// nothing known to be incorrect yet, but not everything has been looked at either
+			return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
+		}
+		if (!anyIncorrect) {
 			if (Baritone.settings().buildInLayers.value && layer < realSchematic.heightY()) {
 				logDirect("Starting layer " + layer);
 				layer++;
+				planEpoch++;
 				return onTick(calcFailed, isSafeToCancel);
 			}
 			Vec3i repeat = Baritone.settings().buildRepeat.value;
@@ -641,14 +795,31 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 			// build repeat time
 			layer = 0;
 			origin = new BlockPos(origin).add(repeat);
+			resetDiff();
 			logDirect("Repeating build in vector " + repeat + ", new origin is " + origin);
 			return onTick(calcFailed, isSafeToCancel);
 		}
-		if (Baritone.settings().distanceTrim.value) {
-			trim();
+		Plan plan = this.plan;
+		if (plan != null && plan.epoch != planEpoch) {
+			plan = null;
+		}
+		Exception failure = planFailure;
+		if (failure != null) {
+			// planning the same thing again would most likely fail the same way, every tick
+			planFailure = null;
+			logDirect("Planning failed: " + failure + ". Pausing. resume to resume, cancel to cancel");
+			paused = true;
+			return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
+		}
+		if (!planning) {
+			startPlanning();
+		}
+		if (plan == null) {
+			// the first plan for this isn't in yet
+			return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
 		}
 
-		Optional<Pair<BetterBlockPos, Rotation>> toBreak = toBreakNearPlayer(bcc);
+		Optional<Pair<BetterBlockPos, Rotation>> toBreak = toBreakNearPlayer(bcc, plan);
 		if (toBreak.isPresent() && isSafeToCancel && ctx.player().onGround) {
 			// we'd like to pause to break this block
 			// only change look direction if it's safe (don't want to fuck up an
@@ -671,7 +842,7 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 			return new PathingCommand(null, PathingCommandType.CANCEL_AND_SET_GOAL);
 		}
 		List<BlockState> desirableOnHotbar = new ArrayList<>();
-		Optional<Placement> toPlace = searchForPlacables(bcc, desirableOnHotbar);
+		Optional<Placement> toPlace = searchForPlacables(bcc, plan, desirableOnHotbar);
 		if (toPlace.isPresent() && isSafeToCancel && ctx.player().onGround && ticks <= 0) {
 			Rotation rot = toPlace.get().rot;
 			baritone.getLookBehavior().updateTarget(rot, true);
@@ -706,19 +877,26 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 			}
 		}
 
-		Goal goal = assemble(bcc, approxPlaceable.subList(0, 9));
-		if (goal == null) {
-			goal = assemble(bcc, approxPlaceable); // we're far away, so assume
-													// that we have our whole
-													// inventory to recalculate
-													// placeable properly
-			if (goal == null) {
-				logDirect("Unable to do it. Pausing. resume to resume, cancel to cancel");
-				paused = true;
-				return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
+		if (plan.goal == null && Baritone.settings().buildInCells.value && !skippedAround) {
+			// this part can't be done right now, maybe another one can
+			if (skipStart == -1) {
+				skipStart = cell;
 			}
+			cell = (cell + 1) % diff.cellCount();
+			incorrectPositions.clear();
+			skipCell = true;
+			planEpoch++; // including the plan that's being worked out right now, it's for the old cell
+			return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
+		}
+		skipStart = -1;
+		skippedAround = false;
+		if (plan.goal == null) {
+			logDirect("Unable to do it. Pausing. resume to resume, cancel to cancel");
+			paused = true;
+			this.plan = null; // don't act on this again after resuming
+			return new PathingCommand(null, PathingCommandType.REQUEST_PAUSE);
 		}
-		return new PathingCommandContext(goal, PathingCommandType.FORCE_REVALIDATE_GOAL_AND_PATH, bcc);
+		return new PathingCommandContext(plan.goal, PathingCommandType.FORCE_REVALIDATE_GOAL_AND_PATH, bcc);
 	}
 
 	@Override
@@ -737,18 +915,18 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		return state;
 	}
 
-	private Goal placementGoal(BlockPos pos, BuilderCalculationContext bcc) {
-		if (!(ctx.world().getBlockState(pos).getBlock() instanceof AirBlock))
+	private Goal placementGoal(BlockPos pos, BuilderCalculationContext bcc, List<Box> entities) {
+		if (!(bcc.bsi.get0(pos).getBlock() instanceof AirBlock))
 			// can
 			// this
 			// even
 			// happen?
 			return new GoalPlace(pos);
-		boolean allowSameLevel = !(ctx.world().getBlockState(pos.up()).getBlock() instanceof AirBlock);
-		BlockState current = ctx.world().getBlockState(pos);
+		boolean allowSameLevel = !(bcc.bsi.get0(pos.up()).getBlock() instanceof AirBlock);
+		BlockState current = bcc.bsi.get0(pos);
 		for (Direction facing : Movement.HORIZONTALS_BUT_ALSO_DOWN_____SO_EVERY_DIRECTION_EXCEPT_UP) {
 			// noinspection ConstantConditions
-			if (MovementHelper.canPlaceAgainst(ctx, pos.offset(facing)) && placementPlausible(pos, bcc.getSchematic(pos.getX(), pos.getY(), pos.getZ(), current)))
+			if (MovementHelper.canPlaceAgainst(bcc.bsi, pos.offset(facing)) && placementPlausible(pos, bcc.getSchematic(pos.getX(), pos.getY(), pos.getZ(), current), bcc.bsi.world, entities))
 				return new GoalAdjacent(pos, pos.offset(facing), allowSameLevel);
 		}
 		return new GoalPlace(pos);
@@ -763,8 +941,78 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		}
 	}
 
+	/**
+	 * Like {@link #placementPlausible(BlockPos, BlockState)}, but safe to call off thread since it checks against a snapshot of the entities' bounding boxes
+	 */
+	private static boolean placementPlausible(BlockPos pos, BlockState state, BlockView world, List<Box> entities) {
+		try {
+			VoxelShape voxelshape = state.getCollisionShape(world, pos);
+			if (voxelshape.isEmpty())
+				return true;
+			Box box = voxelshape.getBoundingBox().offset(pos.getX(), pos.getY(), pos.getZ());
+			for (Box entity : entities) {
+				if (entity.intersects(box))
+					return false;
+			}
+			return true;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	private void refreshPlacementTables() {
+		Vec3d head = ctx.playerHead();
+		int eyeX = (int) Math.floor(head.x * AIM_CACHE_PRECISION);
+		int eyeY = (int) Math.floor(head.y * AIM_CACHE_PRECISION);
+		int eyeZ = (int) Math.floor(head.z * AIM_CACHE_PRECISION);
+		if (eyeX != aimCacheEyeX || eyeY != aimCacheEyeY || eyeZ != aimCacheEyeZ) {
+			aimCache.clear();
+			aimCacheEyeX = eyeX;
+			aimCacheEyeY = eyeY;
+			aimCacheEyeZ = eyeZ;
+		}
+		boolean changed = false;
+		for (int i = 0; i < 9; i++) {
+			Item item = ctx.player().inventory.main.get(i).getItem();
+			if (hotbarItems[i] != item) {
+				hotbarItems[i] = item;
+				changed = true;
+			}
+		}
+		if (!changed)
+			return;
+		Reference2ObjectOpenHashMap<Block, IntArrayList> slots = new Reference2ObjectOpenHashMap<>();
+		IntArrayList all = new IntArrayList();
+		for (int i = 0; i < 9; i++) {
+			if (hotbarItems[i] instanceof BlockItem) {
+				slots.computeIfAbsent(((BlockItem) hotbarItems[i]).getBlock(), block -> new IntArrayList()).add(i);
+				all.add(i);
+			}
+		}
+		hotbarSlots.clear();
+		slots.forEach((block, list) -> hotbarSlots.put(block, list.toIntArray()));
+		blockItemSlots = all.toIntArray();
+	}
+
+	/**
+	 * @return The hotbar slots that could possibly place something {@link #valid} for the desired state
+	 */
+	private int[] hotbarSlotsFor(BlockState desired) {
+		// with these, states of other blocks than the desired one can be valid too
+		if (desired.getFluidState() instanceof BaseFluid && Baritone.settings().okIfWater.value || desired.getBlock() instanceof AirBlock || Baritone.settings().buildIgnoreExisting.value)
+			return blockItemSlots;
+		return hotbarSlots.getOrDefault(desired.getBlock(), NO_SLOTS);
+	}
+
 	private Optional<Placement> possibleToPlace(BlockState toPlace, int x, int y, int z, BlockStateInterface bsi) {
-		for (Direction against : Movement.HORIZONTALS_BUT_ALSO_DOWN_____SO_EVERY_DIRECTION_EXCEPT_UP) {
+		int[] slots = hotbarSlotsFor(toPlace);
+		if (slots.length == 0)
+			return Optional.empty(); // nothing on the hotbar could place it, so don't bother aiming
+		long key = BetterBlockPos.serializeToLong(x, y, z);
+		long aims = aimCache.get(key);
+		Direction[] faces = Movement.HORIZONTALS_BUT_ALSO_DOWN_____SO_EVERY_DIRECTION_EXCEPT_UP;
+		for (int face = 0; face < faces.length; face++) {
+			Direction against = faces[face];
 			BetterBlockPos placeAgainstPos = new BetterBlockPos(x, y, z).offset(against);
 			BlockState placeAgainstState = bsi.get0(placeAgainstPos);
 			if (MovementHelper.isReplaceable(placeAgainstPos.x, placeAgainstPos.y, placeAgainstPos.z, placeAgainstState, bsi)) {
@@ -776,8 +1024,15 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 			if (!placementPlausible(new BetterBlockPos(x, y, z), toPlace)) {
 				continue;
 			}
+			boolean tried = (aims & 1L << 32 + face) != 0;
 			Box aabb = placeAgainstState.getOutlineShape(ctx.world(), placeAgainstPos).getBoundingBox();
-			for (Vec3d placementMultiplier : aabbSideMultipliers(against)) {
+			Vec3d[] points = AIM_POINTS[against.ordinal()];
+			for (int point = 0; point < points.length; point++) {
+				long bit = 1L << 5 * face + point;
+				if (tried && (aims & bit) == 0) {
+					continue; // missed from here before
+				}
+				Vec3d placementMultiplier = points[point];
 				double placeX = placeAgainstPos.x + aabb.x1 * placementMultiplier.x + aabb.x2 * (1 - placementMultiplier.x);
 				double placeY = placeAgainstPos.y + aabb.y1 * placementMultiplier.y + aabb.y2 * (1 - placementMultiplier.y);
 				double placeZ = placeAgainstPos.z + aabb.z1 * placementMultiplier.z + aabb.z2 * (1 - placementMultiplier.z);
@@ -785,25 +1040,38 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 				HitResult result = RayTraceUtils.rayTraceTowards(ctx.player(), rot, ctx.playerController().getBlockReachDistance());
 				BlockPos v = new BlockPos(placeAgainstPos.getX(), placeAgainstPos.getY(), placeAgainstPos.getZ());
 				if (result != null && result.getType() == HitResult.Type.BLOCK && ((BlockHitResult) result).getBlockPos().equals(v) && ((BlockHitResult) result).getSide() == against.getOpposite()) {
-					OptionalInt hotbar = hasAnyItemThatWouldPlace(toPlace, result, rot);
-					if (hotbar.isPresent())
+					aims |= bit;
+					OptionalInt hotbar = hasAnyItemThatWouldPlace(toPlace, result, rot, slots);
+					if (hotbar.isPresent()) {
+						aimCache.put(key, aims);
 						return Optional.of(new Placement(hotbar.getAsInt(), placeAgainstPos, against.getOpposite(), rot));
+					}
+				} else {
+					aims &= ~bit;
 				}
 			}
+			aims |= 1L << 32 + face;
 		}
+		aimCache.put(key, aims);
 		return Optional.empty();
 	}
 
 	private boolean recalc(BuilderCalculationContext bcc) {
+		if (diff == null) {
+			diff = createDiff();
+			diff.seed(new BlockStateInterface(ctx, true), ctx.playerFeet());
+		}
+		diff.update(bcc.bsi, () -> new BlockStateInterface(ctx, true));
 		if (incorrectPositions == null) {
-			incorrectPositions = new HashSet<>();
-			fullRecalc(bcc);
-			if (incorrectPositions.isEmpty())
-				return false;
+			incorrectPositions = new LongOpenHashSet();
+		}
+		if (skipCell) {
+			skipCell = false;
+			collectIncorrect(bcc);
 		}
 		recalcNearby(bcc);
 		if (incorrectPositions.isEmpty()) {
-			fullRecalc(bcc);
+			collectIncorrect(bcc);
 		}
 		return !incorrectPositions.isEmpty();
 	}
@@ -820,13 +1088,12 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 					BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
 					if (desired != null) {
 						// we care about this position
-						BetterBlockPos pos = new BetterBlockPos(x, y, z);
 						if (valid(bcc.bsi.get0(x, y, z), desired)) {
-							incorrectPositions.remove(pos);
-							observedCompleted.add(BetterBlockPos.longHash(pos));
+							incorrectPositions.remove(BetterBlockPos.serializeToLong(x, y, z));
+							diff.set(x, y, z, false);
 						} else {
-							incorrectPositions.add(pos);
-							observedCompleted.remove(BetterBlockPos.longHash(pos));
+							incorrectPositions.add(BetterBlockPos.serializeToLong(x, y, z));
+							diff.set(x, y, z, true);
 						}
 					}
 				}
@@ -839,37 +1106,91 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 		paused = false;
 	}
 
-	private Optional<Placement> searchForPlacables(BuilderCalculationContext bcc, List<BlockState> desirableOnHotbar) {
+	/**
+	 * Takes a snapshot of everything planning needs and starts planning on an executor thread
+	 */
+	private void startPlanning() {
+		planning = true;
+		int epoch = planEpoch;
+		BuilderCalculationContext bcc = new BuilderCalculationContext(); // not the one handed to the pathfinder, block state interfaces can't be shared between threads
+		LongOpenHashSet incorrect = incorrectPositions.clone();
 		BetterBlockPos center = ctx.playerFeet();
+		BetterBlockPos pathStart = baritone.getPathingBehavior().pathStart();
+		List<BlockState> approxPlaceable = this.approxPlaceable;
+		List<Box> entities = ctx.entitiesStream().filter(entity -> entity instanceof LivingEntity).map(Entity::getBoundingBox).collect(Collectors.toList());
+		Baritone.getExecutor().execute(() -> {
+			try {
+				List<BetterBlockPos> toBreak = breakCandidates(bcc, center, pathStart);
+				List<BetterBlockPos> toPlace = placeCandidates(bcc, center);
+				LongOpenHashSet goalPositions = Baritone.settings().distanceTrim.value ? trim(incorrect, center) : incorrect;
+				Goal goal = assemble(bcc, goalPositions, approxPlaceable.subList(0, 9), entities);
+				if (goal == null) {
+					goal = assemble(bcc, goalPositions, approxPlaceable, entities); // we're far away, so assume
+																					// that we have our whole
+																					// inventory to recalculate
+																					// placeable properly
+				}
+				plan = new Plan(epoch, toBreak, toPlace, goal);
+			} catch (Exception e) {
+				e.printStackTrace();
+				planFailure = e;
+			} finally {
+				planning = false;
+			}
+		});
+	}
+
+	private List<BetterBlockPos> placeCandidates(BuilderCalculationContext bcc, BetterBlockPos center) {
+		List<BetterBlockPos> result = new ArrayList<>();
 		for (int dx = -5; dx <= 5; dx++) {
 			for (int dy = -5; dy <= 1; dy++) {
 				for (int dz = -5; dz <= 5; dz++) {
 					int x = center.x + dx;
 					int y = center.y + dy;
 					int z = center.z + dz;
-					BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
-					if (desired == null) {
-						continue; // irrelevant
-					}
-					BlockState curr = bcc.bsi.get0(x, y, z);
-					if (MovementHelper.isReplaceable(x, y, z, curr, bcc.bsi) && !valid(curr, desired)) {
+					if (shouldPlace(bcc, x, y, z) != null) {
 						if (dy == 1 && bcc.bsi.get0(x, y + 1, z).getBlock() instanceof AirBlock) {
 							continue;
 						}
-						desirableOnHotbar.add(desired);
-						Optional<Placement> opt = possibleToPlace(desired, x, y, z, bcc.bsi);
-						if (opt.isPresent())
-							return opt;
+						result.add(new BetterBlockPos(x, y, z));
 					}
 				}
 			}
 		}
+		return result;
+	}
+
+	/**
+	 * @return The desired state if a block should be placed at the position, null otherwise
+	 */
+	private BlockState shouldPlace(BuilderCalculationContext bcc, int x, int y, int z) {
+		BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
+		if (desired == null) {
+			return null; // irrelevant
+		}
+		BlockState curr = bcc.bsi.get0(x, y, z);
+		if (MovementHelper.isReplaceable(x, y, z, curr, bcc.bsi) && !valid(curr, desired))
+			return desired;
+		return null;
+	}
+
+	private Optional<Placement> searchForPlacables(BuilderCalculationContext bcc, Plan plan, List<BlockState> desirableOnHotbar) {
+		refreshPlacementTables();
+		for (BetterBlockPos pos : plan.toPlace) {
+			// the plan can be a few ticks old, so make sure it still needs placing
+			BlockState desired = shouldPlace(bcc, pos.x, pos.y, pos.z);
+			if (desired != null) {
+				desirableOnHotbar.add(desired);
+				Optional<Placement> opt = possibleToPlace(desired, pos.x, pos.y, pos.z, bcc.bsi);
+				if (opt.isPresent())
+					return opt;
+			}
+		}
 		return Optional.empty();
 	}
 
-	private Optional<Pair<BetterBlockPos, Rotation>> toBreakNearPlayer(BuilderCalculationContext bcc) {
-		BetterBlockPos center = ctx.playerFeet();
-		BetterBlockPos pathStart = baritone.getPathingBehavior().pathStart();
+	private List<BetterBlockPos> breakCandidates(BuilderCalculationContext bcc, BetterBlockPos center, BetterBlockPos pathStart) {
+		List<BetterBlockPos> result = new ArrayList<>();
 		for (int dx = -5; dx <= 5; dx++) {
 			for (int dy = Baritone.settings().breakFromAbove.value ? -1 : 0; dy <= 5; dy++) {
 				for (int dz = -5; dz <= 5; dz++) {
@@ -880,29 +1201,48 @@ public final class BuilderProcess extends BaritoneProcessHelper implements IBuil
 						continue; // dont mine what we're supported by, but not
 									// directly standing on
 					}
-					BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
-					if (desired == null) {
-						continue; // irrelevant
-					}
-					BlockState curr = bcc.bsi.get0(x, y, z);
-					if (!(curr.getBlock() instanceof AirBlock) && !(curr.getBlock() == Blocks.WATER || curr.getBlock() == Blocks.LAVA) && !valid(curr, desired)) {
-						BetterBlockPos pos = new BetterBlockPos(x, y, z);
-						Optional<Rotation> rot = BRotationUtils.reachable(ctx.player(), pos, ctx.playerController().getBlockReachDistance());
-						if (rot.isPresent())
-							return Optional.of(new Pair<>(pos, rot.get()));
+					if (shouldBreak(bcc, x, y, z)) {
+						result.add(new BetterBlockPos(x, y, z));
 					}
 				}
 			}
 		}
+		return result;
+	}
+
+	private boolean shouldBreak(BuilderCalculationContext bcc, int x, int y, int z) {
+		BlockState desired = bcc.getSchematic(x, y, z, bcc.bsi.get0(x, y, z));
+		if (desired == null) {
+			return false; // irrelevant
+		}
+		BlockState curr = bcc.bsi.get0(x, y, z);
+		return !(curr.getBlock() instanceof AirBlock) && !(curr.getBlock() == Blocks.WATER || curr.getBlock() == Blocks.LAVA) && !valid(curr, desired);
+	}
+
+	private Optional<Pair<BetterBlockPos, Rotation>> toBreakNearPlayer(BuilderCalculationContext bcc, Plan plan) {
+		for (BetterBlockPos pos : plan.toBreak) {
+			if (shouldBreak(bcc, pos.x, pos.y, pos.z)) {
+				Optional<Rotation> rot = BRotationUtils.reachable(ctx.player(), pos, ctx.playerController().getBlockReachDistance());
+				if (rot.isPresent())
+					return Optional.of(new Pair<>(pos, rot.get()));
+			}
+		}
 		return Optional.empty();
 	}
 
-	private void trim() {
-		HashSet<BetterBlockPos> copy = new HashSet<>(incorrectPositions);
-		copy.removeIf(pos -> pos.getSquaredDistance(new BlockPos(ctx.player())) > 200);
-		if (!copy.isEmpty()) {
-			incorrectPositions = copy;
+	private static LongOpenHashSet trim(LongOpenHashSet incorrectPositions, BlockPos feet) {
+		LongOpenHashSet copy = new LongOpenHashSet();
+		LongIterator it = incorrectPositions.iterator();
+		while (it.hasNext()) {
+			long serialized = it.nextLong();
+			int dx = BetterBlockPos.xFromLong(serialized) - feet.getX();
+			int dy = BetterBlockPos.yFromLong(serialized) - feet.getY();
+			int dz = BetterBlockPos.zFromLong(serialized) - feet.getZ();
+			if (dx * dx + dy * dy + dz * dz <= 200) {
+				copy.add(serialized);
+			}
 		}
+		return copy.isEmpty() ? incorrectPositions : copy;
 	}
 
 	private boolean valid(BlockState current, BlockState desired) {
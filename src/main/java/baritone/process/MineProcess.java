@@ -71,20 +71,7 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
 	private static class GoalThreeBlocks extends GoalTwoBlocks {
 
 		public GoalThreeBlocks(BlockPos pos) {
-			super(pos);
-		}
-
-		@Override
-		public double heuristic(int x, int y, int z) {
-			int xDiff = x - this.x;
-			int yDiff = y - this.y;
-			int zDiff = z - this.z;
-			return GoalBlock.calculate(xDiff, yDiff < -1 ? yDiff + 2 : yDiff == -1 ? 0 : yDiff, zDiff);
-		}
-
-		@Override
-		public boolean isInGoal(int x, int y, int z) {
-			return x == this.x && (y == this.y || y == this.y - 1 || y == this.y - 2) && z == this.z;
+			super(pos, 3);
 		}
 	}
 
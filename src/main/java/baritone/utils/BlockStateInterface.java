@@ -157,4 +157,14 @@ public class BlockStateInterface {
 	public boolean worldContainsLoadedChunk(int blockX, int blockZ) {
 		return provider.isChunkLoaded(blockX >> 4, blockZ >> 4);
 	}
+
+	/**
+	 * @return Whether {@link #get0(int, int, int)} returns the actual blocks in this column, rather than the cache's stand ins
+	 */
+	public boolean readsTheRealWorld(int blockX, int blockZ) {
+		if (!useTheRealWorld)
+			return false;
+		WorldChunk chunk = provider.getChunk(blockX >> 4, blockZ >> 4, ChunkStatus.FULL, false);
+		return chunk != null && !chunk.isEmpty();
+	}
 }
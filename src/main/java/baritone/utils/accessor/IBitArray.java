@@ -3,4 +3,16 @@ package baritone.utils.accessor;
 public interface IBitArray {
 
 	int[] toArray();
+
+	/**
+	 * @return The number of bits used to store each entry
+	 */
+	int bitsPerEntry();
+
+	/**
+	 * Hashes the raw packed storage without unpacking it. Two arrays with equal contents always hash the same.
+	 *
+	 * @return The content hash
+	 */
+	long contentHash();
 }
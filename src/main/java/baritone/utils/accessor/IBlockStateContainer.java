@@ -17,4 +17,16 @@ public interface IBlockStateContainer {
 	BlockState getAtPalette(int index);
 
 	int[] storageArray();
+
+	/**
+	 * @return The number of bits per entry. Values of 8 and below mean a local palette with at most {@code 1 << bits} entries, anything above is the global palette.
+	 */
+	int paletteBits();
+
+	/**
+	 * A cheap fingerprint of the palette and the packed data, used to tell whether a section changed since it was last looked at.
+	 *
+	 * @return The fingerprint
+	 */
+	long fingerprint();
 }
@@ -13,29 +13,51 @@ package baritone.utils.pathing;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.LongConsumer;
 import baritone.Baritone;
 import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.IPlayerContext;
-import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
 import net.minecraft.entity.mob.EndermanEntity;
 import net.minecraft.entity.mob.MobEntity;
 import net.minecraft.entity.mob.SpiderEntity;
 import net.minecraft.entity.mob.ZombiePigmanEntity;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
 
 public class Avoidance {
 
 	public static List<Avoidance> create(IPlayerContext ctx) {
 		if (!Baritone.settings().avoidance.value)
 			return Collections.emptyList();
+		List<Avoidance> res = createSpawners(ctx);
+		res.addAll(createMobs(ctx, 0));
+		return res;
+	}
+
+	public static List<Avoidance> createSpawners(IPlayerContext ctx) {
 		List<Avoidance> res = new ArrayList<>();
 		double mobSpawnerCoeff = Baritone.settings().mobSpawnerAvoidanceCoefficient.value;
-		double mobCoeff = Baritone.settings().mobAvoidanceCoefficient.value;
-		if (mobSpawnerCoeff != 1.0D) {
+		if (Baritone.settings().avoidance.value && mobSpawnerCoeff != 1.0D) {
 			ctx.worldData().getCachedWorld().getLocationsOf("mob_spawner", 1, ctx.playerFeet().x, ctx.playerFeet().z, 2).forEach(mobspawner -> res.add(new Avoidance(mobspawner, mobSpawnerCoeff, Baritone.settings().mobSpawnerAvoidanceRadius.value)));
 		}
-		if (mobCoeff != 1.0D) {
-			ctx.entitiesStream().filter(entity -> entity instanceof MobEntity).filter(entity -> !(entity instanceof SpiderEntity) || ctx.player().getBrightnessAtEyes() < 0.5).filter(entity -> !(entity instanceof ZombiePigmanEntity) || ((ZombiePigmanEntity) entity).getAttacker() != null).filter(entity -> !(entity instanceof EndermanEntity) || ((EndermanEntity) entity).isAngry()).forEach(entity -> res.add(new Avoidance(new BlockPos(entity), mobCoeff, Baritone.settings().mobAvoidanceRadius.value)));
+		return res;
+	}
+
+	/**
+	 * @param ctx              The player context
+	 * @param extrapolateTicks How many ticks ahead to move each mob along its current horizontal velocity, 0 to use where they are right now
+	 * @return An avoidance sphere around every mob that's worth avoiding
+	 */
+	public static List<Avoidance> createMobs(IPlayerContext ctx, int extrapolateTicks) {
+		List<Avoidance> res = new ArrayList<>();
+		double mobCoeff = Baritone.settings().mobAvoidanceCoefficient.value;
+		if (Baritone.settings().avoidance.value && mobCoeff != 1.0D) {
+			ctx.entitiesStream().filter(entity -> entity instanceof MobEntity).filter(entity -> !(entity instanceof SpiderEntity) || ctx.player().getBrightnessAtEyes() < 0.5).filter(entity -> !(entity instanceof ZombiePigmanEntity) || ((ZombiePigmanEntity) entity).getAttacker() != null).filter(entity -> !(entity instanceof EndermanEntity) || ((EndermanEntity) entity).isAngry()).forEach(entity -> {
+				// only horizontally, mobs standing on the ground still have a downwards velocity from gravity
+				Vec3d velocity = entity.getVelocity();
+				BlockPos pos = new BlockPos(entity.getX() + velocity.x * extrapolateTicks, entity.getY(), entity.getZ() + velocity.z * extrapolateTicks);
+				res.add(new Avoidance(pos, mobCoeff, Baritone.settings().mobAvoidanceRadius.value));
+			});
 		}
 		return res;
 	}
@@ -61,19 +83,25 @@ public class Avoidance {
 		radiusSq = radius * radius;
 	}
 
-	public void applySpherical(Long2DoubleOpenHashMap map) {
-		for (int x = -radius; x <= radius; x++) {
-			for (int y = -radius; y <= radius; y++) {
-				for (int z = -radius; z <= radius; z++) {
-					if (x * x + y * y + z * z <= radius * radius) {
-						long hash = BetterBlockPos.longHash(centerX + x, centerY + y, centerZ + z);
-						map.put(hash, map.get(hash) * coefficient);
-					}
+	/**
+	 * Calls the consumer with {@link BetterBlockPos#longHash(int, int, int)} of the coordinates of every 16x16x16 section this sphere's bounding box overlaps
+	 *
+	 * @param consumer The consumer
+	 */
+	void forEachSection(LongConsumer consumer) {
+		for (int x = centerX - radius >> 4; x <= centerX + radius >> 4; x++) {
+			for (int y = centerY - radius >> 4; y <= centerY + radius >> 4; y++) {
+				for (int z = centerZ - radius >> 4; z <= centerZ + radius >> 4; z++) {
+					consumer.accept(BetterBlockPos.longHash(x, y, z));
 				}
 			}
 		}
 	}
 
+	boolean isCenterNear(int x, int y, int z, int maxDistance) {
+		return Math.abs(x - centerX) <= maxDistance && Math.abs(y - centerY) <= maxDistance && Math.abs(z - centerZ) <= maxDistance;
+	}
+
 	public double coefficient(int x, int y, int z) {
 		int xDiff = x - centerX;
 		int yDiff = y - centerY;
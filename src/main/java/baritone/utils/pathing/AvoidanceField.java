@@ -0,0 +1,93 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import java.util.ArrayList;
+import java.util.List;
+import baritone.api.utils.BetterBlockPos;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * An immutable set of avoidance spheres, bucketed by the 16x16x16 sections they overlap.
+ * <p>
+ * The spheres are never rasterized, they're evaluated on demand, so building this is cheap no matter how big or how many the spheres are. Since it never changes after construction, it can be read from any thread.
+ */
+public final class AvoidanceField {
+
+	private static final Avoidance[] NO_AVOIDANCES = new Avoidance[0];
+
+	public static final AvoidanceField EMPTY = new AvoidanceField(NO_AVOIDANCES);
+
+	private final Avoidance[] avoidances;
+
+	/**
+	 * The avoidances overlapping each section, keyed by {@link BetterBlockPos#longHash(int, int, int)} of the section coordinates
+	 */
+	private final Long2ObjectOpenHashMap<Avoidance[]> sections;
+
+	public AvoidanceField(List<Avoidance> avoidances) {
+		this(avoidances.toArray(NO_AVOIDANCES));
+	}
+
+	private AvoidanceField(Avoidance[] avoidances) {
+		this.avoidances = avoidances;
+		Long2ObjectOpenHashMap<List<Avoidance>> bySection = new Long2ObjectOpenHashMap<>();
+		for (Avoidance avoid : avoidances) {
+			avoid.forEachSection(section -> bySection.computeIfAbsent(section, s -> new ArrayList<>()).add(avoid));
+		}
+		sections = new Long2ObjectOpenHashMap<>(bySection.size());
+		for (Long2ObjectMap.Entry<List<Avoidance>> entry : bySection.long2ObjectEntrySet()) {
+			sections.put(entry.getLongKey(), entry.getValue().toArray(NO_AVOIDANCES));
+		}
+	}
+
+	/**
+	 * @param x The x position
+	 * @param y The y position
+	 * @param z The z position
+	 * @return The product of the coefficients of every sphere containing the position
+	 */
+	public double coefficient(int x, int y, int z) {
+		double coeff = 1.0D;
+		Avoidance[] overlapping = sections.get(BetterBlockPos.longHash(x >> 4, y >> 4, z >> 4));
+		if (overlapping != null) {
+			for (Avoidance avoid : overlapping) {
+				coeff *= avoid.coefficient(x, y, z);
+			}
+		}
+		return coeff;
+	}
+
+	/**
+	 * @param x           The x position
+	 * @param y           The y position
+	 * @param z           The z position
+	 * @param maxDistance The distance
+	 * @return Whether the center of any sphere is within the distance of the position
+	 */
+	public boolean hasCenterNear(int x, int y, int z, int maxDistance) {
+		for (Avoidance avoid : avoidances) {
+			if (avoid.isCenterNear(x, y, z, maxDistance)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public int sectionCount() {
+		return sections.size();
+	}
+
+	public boolean isEmpty() {
+		return avoidances.length == 0;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import baritone.api.utils.BetterBlockPos;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * A set of positions that remembers how many times each position was added, so that contributions of several sources can be added and removed independently
+ * <p>
+ * Positions are packed into longs, so adding and removing never allocates a position.
+ */
+public final class BlockPosMultiset {
+
+	private final Long2IntOpenHashMap counts = new Long2IntOpenHashMap();
+
+	private final Set<BlockPos> view = new AbstractSet<BlockPos>() {
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof BlockPos)) {
+				return false;
+			}
+			BlockPos pos = (BlockPos) o;
+			return counts.containsKey(BetterBlockPos.serializeToLong(pos.getX(), pos.getY(), pos.getZ()));
+		}
+
+		@Override
+		public Iterator<BlockPos> iterator() {
+			LongIterator keys = counts.keySet().iterator();
+			return new Iterator<BlockPos>() {
+
+				@Override
+				public boolean hasNext() {
+					return keys.hasNext();
+				}
+
+				@Override
+				public BlockPos next() {
+					return BetterBlockPos.deserializeFromLong(keys.nextLong());
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return counts.size();
+		}
+	};
+
+	public BlockPosMultiset() {
+		counts.defaultReturnValue(0);
+	}
+
+	public void add(BlockPos pos) {
+		counts.addTo(BetterBlockPos.serializeToLong(pos.getX(), pos.getY(), pos.getZ()), 1);
+	}
+
+	public void addAll(Collection<? extends BlockPos> positions) {
+		for (BlockPos pos : positions) {
+			add(pos);
+		}
+	}
+
+	/**
+	 * Removes one occurrence of the position, the position is only gone from the set once every occurrence is removed
+	 *
+	 * @param pos The position
+	 */
+	public void remove(BlockPos pos) {
+		long key = BetterBlockPos.serializeToLong(pos.getX(), pos.getY(), pos.getZ());
+		int count = counts.get(key);
+		if (count <= 1) {
+			counts.remove(key);
+		} else {
+			counts.put(key, count - 1);
+		}
+	}
+
+	public void removeAll(Collection<? extends BlockPos> positions) {
+		for (BlockPos pos : positions) {
+			remove(pos);
+		}
+	}
+
+	public int count(BlockPos pos) {
+		return counts.get(BetterBlockPos.serializeToLong(pos.getX(), pos.getY(), pos.getZ()));
+	}
+
+	public void clear() {
+		counts.clear();
+	}
+
+	/**
+	 * @return A live, read only view of the distinct positions in this multiset
+	 */
+	public Set<BlockPos> asSet() {
+		return view;
+	}
+}
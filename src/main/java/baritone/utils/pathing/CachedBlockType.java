@@ -0,0 +1,74 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+/**
+ * The 4-bit block classes used by the detailed chunk cache. The first four are the same as (and have the same ids as) {@link PathingBlockType}, the rest split up {@link PathingBlockType#SOLID} and {@link PathingBlockType#AVOID} into classes that movements cost differently.
+ */
+public enum CachedBlockType {
+
+	AIR, WATER, AVOID, SOLID,
+
+	/**
+	 * Sand, gravel and friends. Breaking underneath them is expensive.
+	 */
+	FALLING,
+
+	/**
+	 * Ladders and vines
+	 */
+	CLIMBABLE,
+
+	/**
+	 * Bottom slabs, half a block to step up
+	 */
+	SLAB,
+
+	STAIRS,
+
+	/**
+	 * Fences, walls and fence gates, which can't be jumped over
+	 */
+	FENCE,
+
+	LEAVES,
+
+	SOUL_SAND,
+
+	/**
+	 * Solid blocks that take very long to break, like obsidian
+	 */
+	HARD,
+
+	/**
+	 * Solid blocks that can't be broken at all, like bedrock
+	 */
+	UNBREAKABLE;
+
+	/**
+	 * The number of bits every block takes up in the detailed format
+	 */
+	public static final int BITS = 4;
+
+	private static final CachedBlockType[] VALUES = values();
+
+	public static CachedBlockType fromId(int id) {
+		return VALUES[id];
+	}
+
+	public static CachedBlockType fromPathingType(PathingBlockType type) {
+		return VALUES[type.ordinal()];
+	}
+
+	public int getId() {
+		return ordinal();
+	}
+}
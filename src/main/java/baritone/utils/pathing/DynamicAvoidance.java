@@ -0,0 +1,57 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import baritone.Baritone;
+import baritone.api.utils.IPlayerContext;
+
+/**
+ * Mob avoidance that stays up to date while a path is being executed.
+ * <p>
+ * The client thread rebuilds the field from entity positions every tick and publishes it through a volatile reference. The field itself is immutable, so any thread can read whatever the latest one is without taking any lock. A calculation takes the latest field once when it starts and keeps it, see {@link Favoring}.
+ */
+public final class DynamicAvoidance {
+
+	private volatile AvoidanceField mobs = AvoidanceField.EMPTY;
+
+	/**
+	 * Whether mob avoidance should be read from here instead of being built from scratch when a calculation starts
+	 *
+	 * @return Whether it's enabled
+	 */
+	public static boolean enabled() {
+		return Baritone.settings().avoidance.value && Baritone.settings().dynamicMobAvoidance.value && Baritone.settings().mobAvoidanceCoefficient.value != 1.0D;
+	}
+
+	/**
+	 * Rebuilds the field from the current mob positions. Must be called from the client thread.
+	 *
+	 * @param ctx The player context
+	 */
+	public void update(IPlayerContext ctx) {
+		if (!enabled() || ctx.player() == null || ctx.world() == null) {
+			clear();
+			return;
+		}
+		mobs = new AvoidanceField(Avoidance.createMobs(ctx, Baritone.settings().mobAvoidanceExtrapolationTicks.value));
+	}
+
+	public void clear() {
+		mobs = AvoidanceField.EMPTY;
+	}
+
+	/**
+	 * @return The latest field, safe to read from any thread
+	 */
+	public AvoidanceField get() {
+		return mobs;
+	}
+}
@@ -17,32 +17,65 @@ import baritone.api.utils.IPlayerContext;
 import baritone.pathing.movement.CalculationContext;
 import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
 
+/**
+ * A cost multiplier field over the world, made up of the previous path (backtrack favoring) and mob avoidance spheres.
+ * <p>
+ * Avoidances are evaluated lazily by the pathing thread, see {@link AvoidanceField}. Mobs are either snapshotted here along with the spawners, or taken from the latest field of a {@link DynamicAvoidance}. Either way the field stays the same for the whole calculation: nodes that are already expanded are never costed again, so a field that changed halfway through would leave one path costed against different fields.
+ */
 public final class Favoring {
 
 	private final Long2DoubleOpenHashMap favorings;
 
+	private final AvoidanceField avoidances;
+
+	/**
+	 * The mob avoidances from a {@link DynamicAvoidance} as of when the calculation started, empty if they're part of {@link #avoidances} instead
+	 */
+	private final AvoidanceField mobs;
+
 	public Favoring(IPath previous, CalculationContext context) { // create one just from previous path, no mob avoidances
+		this(previous, context, AvoidanceField.EMPTY, AvoidanceField.EMPTY);
+	}
+
+	public Favoring(IPlayerContext ctx, IPath previous, CalculationContext context) {
+		this(ctx, previous, context, null);
+	}
+
+	public Favoring(IPlayerContext ctx, IPath previous, CalculationContext context, DynamicAvoidance dynamic) {
+		this(previous, context, new AvoidanceField(dynamic != null && DynamicAvoidance.enabled() ? Avoidance.createSpawners(ctx) : Avoidance.create(ctx)), dynamic != null && DynamicAvoidance.enabled() ? dynamic.get() : AvoidanceField.EMPTY);
+		Helper.HELPER.logDebug("Favoring size: " + favorings.size() + ", avoidance sections: " + avoidances.sectionCount() + ", mob avoidance sections: " + mobs.sectionCount());
+	}
+
+	private Favoring(IPath previous, CalculationContext context, AvoidanceField avoidances, AvoidanceField mobs) {
 		favorings = new Long2DoubleOpenHashMap();
 		favorings.defaultReturnValue(1.0D);
 		double coeff = context.backtrackCostFavoringCoefficient;
 		if (coeff != 1D && previous != null) {
 			previous.positions().forEach(pos -> favorings.put(BetterBlockPos.longHash(pos), coeff));
 		}
+		this.avoidances = avoidances;
+		this.mobs = mobs;
 	}
 
-	public Favoring(IPlayerContext ctx, IPath previous, CalculationContext context) {
-		this(previous, context);
-		for (Avoidance avoid : Avoidance.create(ctx)) {
-			avoid.applySpherical(favorings);
+	/**
+	 * @param x    The x position
+	 * @param y    The y position
+	 * @param z    The z position
+	 * @param hash {@link BetterBlockPos#longHash(int, int, int)} of the position
+	 * @return The cost multiplier at the position
+	 */
+	public double calculate(int x, int y, int z, long hash) {
+		double coeff = favorings.get(hash);
+		if (!avoidances.isEmpty()) {
+			coeff *= avoidances.coefficient(x, y, z);
 		}
-		Helper.HELPER.logDebug("Favoring size: " + favorings.size());
-	}
-
-	public double calculate(long hash) {
-		return favorings.get(hash);
+		if (!mobs.isEmpty()) {
+			coeff *= mobs.coefficient(x, y, z);
+		}
+		return coeff;
 	}
 
 	public boolean isEmpty() {
-		return favorings.isEmpty();
+		return favorings.isEmpty() && avoidances.isEmpty() && mobs.isEmpty();
 	}
 }
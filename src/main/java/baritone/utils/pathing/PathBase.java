@@ -14,12 +14,30 @@ import baritone.Baritone;
 import baritone.api.BaritoneAPI;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
 import baritone.pathing.path.CutoffPath;
 import baritone.utils.BlockStateInterface;
 import net.minecraft.util.math.BlockPos;
 
 public abstract class PathBase implements IPath {
 
+	/**
+	 * Built the first time it's needed. Paths never change once created, and the index is immutable, so a race just means it gets built twice
+	 */
+	private PathPositionIndex positionIndex;
+
+	@Override
+	public int indexOf(BetterBlockPos pos) {
+		if (pos == null)
+			return -1;
+		PathPositionIndex index = positionIndex;
+		if (index == null) {
+			index = new PathPositionIndex(positions());
+			positionIndex = index;
+		}
+		return index.indexOf(pos.x, pos.y, pos.z);
+	}
+
 	@Override
 	public PathBase cutoffAtLoadedChunks(Object bsi0) { // <-- cursed cursed cursed
 		if (!Baritone.settings().cutoffAtLoadBoundary.value)
@@ -0,0 +1,76 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.pathing;
+
+import java.util.List;
+import baritone.api.utils.BetterBlockPos;
+
+/**
+ * Maps the positions of a path to their index, so that checking whether a path contains a position doesn't need to go through the whole path
+ * <p>
+ * Positions are packed into longs and kept in an open addressed table, so a lookup never allocates. Immutable once built.
+ */
+public final class PathPositionIndex {
+
+	private final long[] keys;
+
+	/**
+	 * The index of the position in the same slot of {@link #keys}, or -1 if the slot is empty
+	 */
+	private final int[] values;
+
+	private final int mask;
+
+	public PathPositionIndex(List<BetterBlockPos> positions) {
+		int capacity = Integer.highestOneBit(Math.max(positions.size(), 2) * 2 - 1) << 1; // at most half full
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		for (int i = 0; i < capacity; i++) {
+			values[i] = -1;
+		}
+		for (int i = 0; i < positions.size(); i++) {
+			BetterBlockPos pos = positions.get(i);
+			long key = BetterBlockPos.serializeToLong(pos.x, pos.y, pos.z);
+			int slot = slot(key);
+			while (values[slot] != -1 && keys[slot] != key) {
+				slot = slot + 1 & mask;
+			}
+			if (values[slot] == -1) { // keep the first occurrence, like List#indexOf
+				keys[slot] = key;
+				values[slot] = i;
+			}
+		}
+	}
+
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ hash >>> 32) & mask;
+	}
+
+	/**
+	 * @param x The x position
+	 * @param y The y position
+	 * @param z The z position
+	 * @return The index of the first occurrence of the position in the path, or -1 if it isn't in it
+	 */
+	public int indexOf(int x, int y, int z) {
+		long key = BetterBlockPos.serializeToLong(x, y, z);
+		int slot = slot(key);
+		while (values[slot] != -1) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = slot + 1 & mask;
+		}
+		return -1;
+	}
+}
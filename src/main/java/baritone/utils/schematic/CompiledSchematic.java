@@ -0,0 +1,288 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.schematic;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import baritone.api.schematic.CompositeSchematic;
+import baritone.api.schematic.CompositeSchematicEntry;
+import baritone.api.schematic.FillSchematic;
+import baritone.api.schematic.ISchematic;
+import baritone.api.schematic.MaskSchematic;
+import baritone.api.schematic.ReplaceSchematic;
+import baritone.api.schematic.ShellSchematic;
+import baritone.api.schematic.WallsSchematic;
+import baritone.api.utils.BlockOptionalMeta;
+import baritone.api.utils.BlockOptionalMetaLookup;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+
+/**
+ * A stack of schematic wrappers flattened into a single evaluator.
+ * <p>
+ * The builder asks its schematic about every position it looks at, and the selection schematics are nested wrappers around each other. Compiling resolves the stack once: the walls and shell masks become flags, block filters become identity sets of the states they match, and the y range the builder restricts itself to when building in layers is part of the evaluator rather than one more wrapper. Whatever can't be flattened, like a static schematic or map art, is kept as the base the evaluator delegates to. Composites are rebuilt with each of their entries compiled.
+ */
+public final class CompiledSchematic implements ISchematic {
+
+	private static final byte NOT_SEEN = 0;
+	private static final byte REPLACE = 1;
+	private static final byte KEEP = 2;
+
+	private final int x;
+	private final int y;
+	private final int z;
+
+	/**
+	 * What's left of the stack after flattening, or {@code null} if that was a plain fill
+	 */
+	private final ISchematic base;
+
+	private final BlockOptionalMeta fill;
+
+	/**
+	 * Every state {@link #fill} matches
+	 */
+	private final Set<BlockState> fillStates;
+
+	private final boolean walls;
+
+	private final boolean shell;
+
+	/**
+	 * Every state all replace filters in the stack match, or {@code null} if there were none
+	 */
+	private final Set<BlockState> replaceable;
+
+	/**
+	 * Like {@link ReplaceSchematic}, whether a position is part of the mask is decided by the first state seen there. Allocated per 16x16x16 section as it's needed, and shared with every y restriction of this evaluator. Sections are installed with a compare and set, since several threads can ask about the same section for the first time at once, and a section one of them allocated in vain would take the decisions made through it along.
+	 */
+	private final AtomicReferenceArray<byte[]> replaceCache;
+
+	private final int minY;
+
+	private final int maxY;
+
+	/**
+	 * What a fill resolves to in air, for the last placeable list seen
+	 */
+	private volatile Resolved resolved;
+
+	private static final class Resolved {
+
+		private final List<BlockState> approxPlaceable;
+		private final BlockState state;
+
+		private Resolved(List<BlockState> approxPlaceable, BlockState state) {
+			this.approxPlaceable = approxPlaceable;
+			this.state = state;
+		}
+	}
+
+	private CompiledSchematic(ISchematic schematic) {
+		x = schematic.widthX();
+		y = schematic.heightY();
+		z = schematic.lengthZ();
+		minY = 0;
+		maxY = y - 1;
+
+		boolean walls = false;
+		boolean shell = false;
+		Set<BlockState> replaceable = null;
+		while (true) {
+			if (schematic.getClass() == WallsSchematic.class) {
+				walls = true;
+			} else if (schematic.getClass() == ShellSchematic.class) {
+				shell = true;
+			} else if (schematic.getClass() == ReplaceSchematic.class) {
+				Set<BlockState> states = statesMatching(((ReplaceSchematic) schematic).getFilter());
+				if (replaceable != null) {
+					states.retainAll(replaceable);
+				}
+				replaceable = states;
+			} else {
+				break;
+			}
+			schematic = ((MaskSchematic) schematic).getSchematic();
+		}
+		this.walls = walls;
+		this.shell = shell;
+		this.replaceable = replaceable;
+		replaceCache = replaceable == null ? null : new AtomicReferenceArray<>(sections(x) * sections(y) * sections(z));
+
+		if (schematic.getClass() == FillSchematic.class) {
+			base = null;
+			fill = ((FillSchematic) schematic).getBom();
+			fillStates = statesMatching(new BlockOptionalMetaLookup(fill));
+		} else {
+			if (schematic.getClass() == CompositeSchematic.class) {
+				CompositeSchematic composite = new CompositeSchematic(schematic.widthX(), schematic.heightY(), schematic.lengthZ());
+				for (CompositeSchematicEntry entry : ((CompositeSchematic) schematic).getEntries()) {
+					composite.put(compile(entry.schematic), entry.x, entry.y, entry.z);
+				}
+				schematic = composite;
+			}
+			base = schematic;
+			fill = null;
+			fillStates = null;
+		}
+	}
+
+	private CompiledSchematic(CompiledSchematic compiled, int minY, int maxY) {
+		this(compiled, compiled.base, compiled.replaceCache, minY, maxY);
+	}
+
+	private CompiledSchematic(CompiledSchematic compiled, ISchematic base, AtomicReferenceArray<byte[]> replaceCache, int minY, int maxY) {
+		x = compiled.x;
+		y = compiled.y;
+		z = compiled.z;
+		this.base = base;
+		fill = compiled.fill;
+		fillStates = compiled.fillStates;
+		walls = compiled.walls;
+		shell = compiled.shell;
+		replaceable = compiled.replaceable;
+		this.replaceCache = replaceCache;
+		this.minY = minY;
+		this.maxY = maxY;
+	}
+
+	/**
+	 * Flattens a schematic. This is done once per build, the result stays valid for as long as the schematic isn't modified.
+	 *
+	 * @param schematic The schematic
+	 * @return The flattened schematic
+	 */
+	public static CompiledSchematic compile(ISchematic schematic) {
+		if (schematic instanceof CompiledSchematic)
+			return (CompiledSchematic) schematic;
+		return new CompiledSchematic(schematic);
+	}
+
+	/**
+	 * @param minY The lowest y that should be considered part of the schematic
+	 * @param maxY The highest y that should be considered part of the schematic, inclusive
+	 * @return This schematic, restricted to the specified layers
+	 */
+	public CompiledSchematic restrictY(int minY, int maxY) {
+		if (minY == this.minY && maxY == this.maxY)
+			return this;
+		return new CompiledSchematic(this, minY, maxY);
+	}
+
+	/**
+	 * Copies which positions this schematic has already decided to replace or keep. The copy decides the positions neither
+	 * has seen yet on its own, so looking at something other than the world as it was when building through the copy, like the
+	 * stand in states of the cache, doesn't change what this schematic builds.
+	 *
+	 * @return A copy of this schematic that doesn't share what it decides about positions with this one
+	 */
+	public CompiledSchematic detach() {
+		ISchematic base = this.base;
+		if (base != null && base.getClass() == CompositeSchematic.class) { // only ever one that compile built out of compiled entries
+			CompositeSchematic composite = new CompositeSchematic(base.widthX(), base.heightY(), base.lengthZ());
+			for (CompositeSchematicEntry entry : ((CompositeSchematic) base).getEntries()) {
+				composite.put(((CompiledSchematic) entry.schematic).detach(), entry.x, entry.y, entry.z);
+			}
+			base = composite;
+		}
+		AtomicReferenceArray<byte[]> replaceCache = null;
+		if (this.replaceCache != null) {
+			replaceCache = new AtomicReferenceArray<>(this.replaceCache.length());
+			for (int i = 0; i < replaceCache.length(); i++) {
+				byte[] cache = this.replaceCache.get(i);
+				replaceCache.set(i, cache == null ? null : cache.clone());
+			}
+		}
+		return new CompiledSchematic(this, base, replaceCache, minY, maxY);
+	}
+
+	private static Set<BlockState> statesMatching(BlockOptionalMetaLookup filter) {
+		Set<BlockState> states = new ReferenceOpenHashSet<>();
+		for (BlockOptionalMeta bom : filter.blocks()) {
+			for (BlockState state : bom.getBlock().getStateManager().getStates()) {
+				if (bom.matches(state)) {
+					states.add(state);
+				}
+			}
+		}
+		return states;
+	}
+
+	private static int sections(int size) {
+		return size + 15 >> 4;
+	}
+
+	@Override
+	public boolean inSchematic(int x, int y, int z, BlockState currentState) {
+		if (x < 0 || x >= this.x || y < minY || y > maxY || y >= this.y || z < 0 || z >= this.z)
+			return false;
+		if (base != null && !base.inSchematic(x, y, z, currentState))
+			return false;
+		if (walls && x != 0 && z != 0 && x != this.x - 1 && z != this.z - 1)
+			return false;
+		if (shell && x != 0 && y != 0 && z != 0 && x != this.x - 1 && y != this.y - 1 && z != this.z - 1)
+			return false;
+		return replaceable == null || replaces(x, y, z, currentState);
+	}
+
+	private boolean replaces(int x, int y, int z, BlockState currentState) {
+		int section = ((x >> 4) * sections(this.y) + (y >> 4)) * sections(this.z) + (z >> 4);
+		byte[] cache = replaceCache.get(section);
+		if (cache == null && !replaceCache.compareAndSet(section, null, cache = new byte[4096])) {
+			cache = replaceCache.get(section);
+		}
+		int index = (y & 15) << 8 | (z & 15) << 4 | x & 15;
+		if (cache[index] == NOT_SEEN) {
+			cache[index] = replaceable.contains(currentState) ? REPLACE : KEEP;
+		}
+		return cache[index] == REPLACE;
+	}
+
+	@Override
+	public BlockState desiredState(int x, int y, int z, BlockState current, List<BlockState> approxPlaceable) {
+		if (base != null)
+			return base.desiredState(x, y, z, current, approxPlaceable);
+		if (fillStates.contains(current))
+			return current;
+		else if (current.getBlock() != Blocks.AIR)
+			return Blocks.AIR.getDefaultState();
+		// the placeable list is rebuilt rather than modified whenever the inventory may have changed, so it's enough to resolve this once per list
+		Resolved resolved = this.resolved;
+		if (resolved == null || resolved.approxPlaceable != approxPlaceable) {
+			BlockState state = fill.getAnyBlockState();
+			for (BlockState placeable : approxPlaceable) {
+				if (fillStates.contains(placeable)) {
+					state = placeable;
+					break;
+				}
+			}
+			this.resolved = resolved = new Resolved(approxPlaceable, state);
+		}
+		return resolved.state;
+	}
+
+	@Override
+	public int widthX() {
+		return x;
+	}
+
+	@Override
+	public int heightY() {
+		return y;
+	}
+
+	@Override
+	public int lengthZ() {
+		return z;
+	}
+}
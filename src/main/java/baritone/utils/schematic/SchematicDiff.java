@@ -0,0 +1,416 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.schematic;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import baritone.Baritone;
+import baritone.api.utils.BetterBlockPos;
+import baritone.utils.BlockStateInterface;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.Vec3i;
+
+/**
+ * Keeps track of which blocks of a schematic placed in the world don't match it yet, so the builder never has to scan the whole schematic again.
+ * <p>
+ * Every chunk section the schematic overlaps gets a bitmap of its incorrect positions. The bitmaps are seeded once on an executor thread, and redone for a chunk when it loads. After that they're only updated for blocks that actually changed. A position in a chunk that isn't loaded counts as incorrect until it's seen to be correct, and keeps what was last seen of it once its chunk unloads.
+ * <p>
+ * Everything but the seeding happens on the client thread.
+ */
+public final class SchematicDiff {
+
+	/**
+	 * What the schematic wants, in world coordinates
+	 */
+	public interface Check {
+
+		/**
+		 * @return Whether the position is part of the schematic at all
+		 */
+		boolean inSchematic(int x, int y, int z, BlockState current);
+
+		/**
+		 * Only called for positions that are part of the schematic
+		 *
+		 * @return Whether the block already is what the schematic wants there
+		 */
+		boolean isCorrect(int x, int y, int z, BlockState current);
+	}
+
+	private static final class Section {
+
+		/**
+		 * One bit per position, indexed like {@code y << 8 | z << 4 | x}. {@code null} while nothing is incorrect.
+		 */
+		private long[] incorrect;
+
+		private int count;
+
+		private boolean get(int index) {
+			return incorrect != null && (incorrect[index >> 6] & 1L << index) != 0;
+		}
+
+		private void set(int index, boolean value) {
+			if (value == get(index)) {
+				return;
+			}
+			if (value) {
+				if (incorrect == null) {
+					incorrect = new long[64];
+				}
+				incorrect[index >> 6] |= 1L << index;
+				count++;
+			} else {
+				incorrect[index >> 6] &= ~(1L << index);
+				if (--count == 0) {
+					incorrect = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A section computed on an executor thread, waiting to be picked up on the client thread
+	 */
+	private static final class Seeded {
+
+		private final int index;
+		private final int generation;
+		private final Section section;
+
+		private Seeded(int index, int generation, Section section) {
+			this.index = index;
+			this.generation = generation;
+			this.section = section;
+		}
+	}
+
+	private final Check check;
+
+	/**
+	 * The bounds of the schematic in the world, inclusive
+	 */
+	private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+	private final int sectionMinX, sectionMinY, sectionMinZ;
+	private final int sectionsX, sectionsY, sectionsZ;
+
+	/**
+	 * {@code null} until a section is seeded
+	 */
+	private final Section[] sections;
+
+	/**
+	 * The generation of the latest seed of every section that was started. Results of older seeds are dropped.
+	 */
+	private final int[] scheduled;
+
+	/**
+	 * The generation every section's current contents come from
+	 */
+	private final int[] applied;
+
+	/**
+	 * The section indices in the order {@link #collectIncorrectCell(int, int, Predicate)} visits them
+	 */
+	private final int[] sweep;
+
+	private final Queue<Seeded> seeded = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Changed positions in sections that are being seeded, applied once the seed is in since it may have read the block before it changed
+	 */
+	private final LongOpenHashSet deferred = new LongOpenHashSet();
+
+	private final LongOpenHashSet changed = new LongOpenHashSet();
+
+	/**
+	 * Chunks that loaded since the last update, as packed chunk coordinates
+	 */
+	private final LongOpenHashSet loadedChunks = new LongOpenHashSet();
+
+	private int pending;
+
+	private volatile boolean cancelled;
+
+	private int incorrectCount;
+
+	public SchematicDiff(Vec3i origin, int widthX, int heightY, int lengthZ, Check check) {
+		this.check = check;
+		minX = origin.getX();
+		minY = Math.max(origin.getY(), 0);
+		minZ = origin.getZ();
+		maxX = origin.getX() + widthX - 1;
+		maxY = Math.min(origin.getY() + heightY - 1, 255);
+		maxZ = origin.getZ() + lengthZ - 1;
+		sectionMinX = minX >> 4;
+		sectionMinY = minY >> 4;
+		sectionMinZ = minZ >> 4;
+		sectionsX = Math.max((maxX >> 4) - sectionMinX + 1, 0);
+		sectionsY = Math.max((maxY >> 4) - sectionMinY + 1, 0);
+		sectionsZ = Math.max((maxZ >> 4) - sectionMinZ + 1, 0);
+		int size = sectionsX * sectionsY * sectionsZ;
+		sections = new Section[size];
+		scheduled = new int[size];
+		applied = new int[size];
+		sweep = new int[size];
+		int n = 0;
+		for (int y = 0; y < sectionsY; y++) {
+			for (int j = 0; j < sectionsZ; j++) {
+				int z = y % 2 == 0 ? j : sectionsZ - 1 - j;
+				int row = y * sectionsZ + j;
+				for (int k = 0; k < sectionsX; k++) {
+					int x = row % 2 == 0 ? k : sectionsX - 1 - k;
+					sweep[n++] = (y * sectionsZ + z) * sectionsX + x;
+				}
+			}
+		}
+	}
+
+	private int sectionIndex(int sectionX, int sectionY, int sectionZ) {
+		return ((sectionY - sectionMinY) * sectionsZ + sectionZ - sectionMinZ) * sectionsX + sectionX - sectionMinX;
+	}
+
+	private boolean inBounds(int x, int y, int z) {
+		return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+	}
+
+	/**
+	 * Starts seeding every section on an executor thread, the ones closest to the specified position first
+	 *
+	 * @param bsi    A thread safe block state interface, see {@link BlockStateInterface#BlockStateInterface(baritone.api.utils.IPlayerContext, boolean)}
+	 * @param center Where to start
+	 */
+	public void seed(BlockStateInterface bsi, BetterBlockPos center) {
+		List<Integer> indices = new ArrayList<>(sections.length);
+		for (int i = 0; i < sections.length; i++) {
+			indices.add(i);
+		}
+		indices.sort(Comparator.comparingInt(i -> {
+			int dx = (i % sectionsX + sectionMinX << 4) + 8 - center.x;
+			int dy = (i / (sectionsX * sectionsZ) + sectionMinY << 4) + 8 - center.y;
+			int dz = (i / sectionsX % sectionsZ + sectionMinZ << 4) + 8 - center.z;
+			return dx * dx + dy * dy + dz * dz;
+		}));
+		schedule(indices, bsi);
+	}
+
+	private void schedule(List<Integer> indices, BlockStateInterface bsi) {
+		if (indices.isEmpty()) {
+			return;
+		}
+		int[] generations = new int[indices.size()];
+		for (int i = 0; i < generations.length; i++) {
+			int index = indices.get(i);
+			generations[i] = ++scheduled[index];
+		}
+		pending += generations.length;
+		Baritone.getExecutor().execute(() -> {
+			for (int i = 0; i < generations.length && !cancelled; i++) {
+				int index = indices.get(i);
+				seeded.add(new Seeded(index, generations[i], compute(index, bsi)));
+			}
+		});
+	}
+
+	private Section compute(int index, BlockStateInterface bsi) {
+		int baseX = index % sectionsX + sectionMinX << 4;
+		int baseY = index / (sectionsX * sectionsZ) + sectionMinY << 4;
+		int baseZ = index / sectionsX % sectionsZ + sectionMinZ << 4;
+		Section section = new Section();
+		for (int x = Math.max(baseX, minX); x <= Math.min(baseX + 15, maxX); x++) {
+			for (int z = Math.max(baseZ, minZ); z <= Math.min(baseZ + 15, maxZ); z++) {
+				boolean loaded = bsi.worldContainsLoadedChunk(x, z);
+				for (int y = Math.max(baseY, minY); y <= Math.min(baseY + 15, maxY); y++) {
+					BlockState current = bsi.get0(x, y, z);
+					if (check.inSchematic(x, y, z, current) && (!loaded || !check.isCorrect(x, y, z, current))) {
+						section.set((y & 15) << 8 | (z & 15) << 4 | x & 15, true);
+					}
+				}
+			}
+		}
+		return section;
+	}
+
+	/**
+	 * A block changed, it'll be looked at again on the next {@link #update(BlockStateInterface, Supplier)}
+	 */
+	public void onBlockChange(int x, int y, int z) {
+		if (inBounds(x, y, z)) {
+			changed.add(BetterBlockPos.serializeToLong(x, y, z));
+		}
+	}
+
+	/**
+	 * A chunk was loaded, all of its sections will be seeded again on the next {@link #update(BlockStateInterface, Supplier)}
+	 */
+	public void onChunkLoad(int chunkX, int chunkZ) {
+		if (chunkX >= sectionMinX && chunkX < sectionMinX + sectionsX && chunkZ >= sectionMinZ && chunkZ < sectionMinZ + sectionsZ) {
+			loadedChunks.add((long) chunkX << 32 | chunkZ & 0xFFFFFFFFL);
+		}
+	}
+
+	/**
+	 * Takes in finished seeds, applies block changes and starts seeding chunks that loaded
+	 *
+	 * @param bsi      A block state interface to look at changed blocks with
+	 * @param snapshot Supplies a thread safe block state interface, only called if anything has to be seeded
+	 */
+	public void update(BlockStateInterface bsi, Supplier<BlockStateInterface> snapshot) {
+		Seeded result;
+		while ((result = seeded.poll()) != null) {
+			pending--;
+			if (result.generation != scheduled[result.index]) {
+				continue; // there's a newer seed of this section on its way
+			}
+			Section old = sections[result.index];
+			incorrectCount += result.section.count - (old == null ? 0 : old.count);
+			sections[result.index] = result.section;
+			applied[result.index] = result.generation;
+		}
+		if (!loadedChunks.isEmpty()) {
+			List<Integer> indices = new ArrayList<>();
+			LongIterator it = loadedChunks.iterator();
+			while (it.hasNext()) {
+				long chunk = it.nextLong();
+				int chunkX = (int) (chunk >> 32);
+				int chunkZ = (int) chunk;
+				for (int sectionY = sectionMinY; sectionY < sectionMinY + sectionsY; sectionY++) {
+					indices.add(sectionIndex(chunkX, sectionY, chunkZ));
+				}
+			}
+			loadedChunks.clear();
+			schedule(indices, snapshot.get());
+		}
+		changed.addAll(deferred);
+		deferred.clear();
+		LongIterator it = changed.iterator();
+		while (it.hasNext()) {
+			long packed = it.nextLong();
+			int x = BetterBlockPos.xFromLong(packed);
+			int y = BetterBlockPos.yFromLong(packed);
+			int z = BetterBlockPos.zFromLong(packed);
+			int index = sectionIndex(x >> 4, y >> 4, z >> 4);
+			if (sections[index] == null || applied[index] != scheduled[index]) {
+				deferred.add(packed);
+				continue;
+			}
+			BlockState current = bsi.get0(x, y, z);
+			set(x, y, z, check.inSchematic(x, y, z, current) && !check.isCorrect(x, y, z, current));
+		}
+		changed.clear();
+	}
+
+	/**
+	 * Records what was seen at a position, for example while scanning around the player
+	 */
+	public void set(int x, int y, int z, boolean incorrect) {
+		if (!inBounds(x, y, z)) {
+			return;
+		}
+		Section section = sections[sectionIndex(x >> 4, y >> 4, z >> 4)];
+		if (section == null) {
+			return; // the seed will see it
+		}
+		int before = section.count;
+		section.set((y & 15) << 8 | (z & 15) << 4 | x & 15, incorrect);
+		incorrectCount += section.count - before;
+	}
+
+	/**
+	 * Stops seeding, once this diff isn't needed anymore
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return Whether some sections haven't been seeded yet, so not every incorrect position may be known
+	 */
+	public boolean isSeeding() {
+		return pending > 0;
+	}
+
+	/**
+	 * @return How many positions are known to be incorrect
+	 */
+	public int incorrectCount() {
+		return incorrectCount;
+	}
+
+	/**
+	 * Hands incorrect positions to the consumer, bottom to top, until it took the specified amount
+	 *
+	 * @param max      How many positions to take at most
+	 * @param consumer Returns whether it took the position
+	 */
+	public void collectIncorrect(int max, Predicate<BetterBlockPos> consumer) {
+		int found = 0;
+		for (int i = 0; i < sections.length && found < max; i++) {
+			found += collect(i, max - found, consumer);
+		}
+	}
+
+	/**
+	 * @return How many work cells there are, see {@link #collectIncorrectCell(int, int, Predicate)}
+	 */
+	public int cellCount() {
+		return sweep.length;
+	}
+
+	/**
+	 * Hands the incorrect positions of a single work cell to the consumer. Cells are the chunk sections, visited in a sweep that goes back and forth along x, then z, then y, so that the next cell in the sweep is always right next to the previous one.
+	 *
+	 * @param from     The position in the sweep to start looking from, wrapping around to the start of the sweep
+	 * @param max      How many positions to take at most
+	 * @param consumer Returns whether it took the position
+	 * @return The position in the sweep of the cell the consumer took positions from, or -1 if it didn't take any
+	 */
+	public int collectIncorrectCell(int from, int max, Predicate<BetterBlockPos> consumer) {
+		for (int i = 0; i < sweep.length; i++) {
+			int position = (from + i) % sweep.length;
+			if (collect(sweep[position], max, consumer) > 0) {
+				return position;
+			}
+		}
+		return -1;
+	}
+
+	private int collect(int sectionIndex, int max, Predicate<BetterBlockPos> consumer) {
+		Section section = sections[sectionIndex];
+		if (section == null || section.count == 0) {
+			return 0;
+		}
+		int baseX = sectionIndex % sectionsX + sectionMinX << 4;
+		int baseY = sectionIndex / (sectionsX * sectionsZ) + sectionMinY << 4;
+		int baseZ = sectionIndex / sectionsX % sectionsZ + sectionMinZ << 4;
+		long[] bits = section.incorrect;
+		int found = 0;
+		for (int word = 0; word < 64 && found < max; word++) {
+			long w = bits[word];
+			while (w != 0 && found < max) {
+				int index = word << 6 | Long.numberOfTrailingZeros(w);
+				w &= w - 1;
+				if (consumer.test(new BetterBlockPos(baseX | index & 15, baseY | index >> 8, baseZ | index >> 4 & 15))) {
+					found++;
+				}
+			}
+		}
+		return found;
+	}
+}
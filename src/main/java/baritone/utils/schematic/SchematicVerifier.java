@@ -0,0 +1,266 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with Baritone. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.utils.schematic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import baritone.Baritone;
+import baritone.api.schematic.ISchematic;
+import baritone.api.schematic.VerificationReport;
+import baritone.api.utils.BetterBlockPos;
+import baritone.cache.ChunkPacker;
+import baritone.pathing.movement.MovementHelper;
+import baritone.utils.BlockStateInterface;
+import baritone.utils.pathing.PathingBlockType;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.Vec3i;
+
+/**
+ * Diffs an entire schematic against the world, in parallel on the executor.
+ * <p>
+ * The schematic is split into columns of 16x16 blocks, which the workers take from a shared counter, each with its own copy of the loaded chunks. Chunks that aren't loaded are checked against the cache instead, which can only tell roughly what kind of block is where, so those positions are counted separately. Positions in chunks that are neither loaded nor cached are only counted, without asking the schematic about them. Incorrect positions aren't kept, they're only counted per 16x16x16 section of the schematic, so the report on even the largest schematic stays small. Adjacent sections with incorrect positions are merged into regions at the end.
+ */
+public final class SchematicVerifier {
+
+	private final ISchematic schematic;
+	private final int originX;
+	private final int originY;
+	private final int originZ;
+	private final List<BlockState> approxPlaceable;
+	private final BiPredicate<BlockState, BlockState> valid;
+
+	private final int sectionsX;
+	private final int sectionsY;
+	private final int sectionsZ;
+
+	private final AtomicInteger nextColumn = new AtomicInteger();
+
+	/**
+	 * The number of incorrect positions in each section. Every section is only ever written by the worker that took its column.
+	 */
+	private final int[] sectionIncorrect;
+
+	/**
+	 * The bounding box of the incorrect positions in each section, as min x, y, z and max x, y, z relative to the origin
+	 */
+	private final int[] sectionBounds;
+
+	private final class Worker implements Runnable {
+
+		private final BlockStateInterface bsi;
+
+		private long total;
+		private long correct;
+		private long unknown;
+		private long approximateTotal;
+		private long approximateCorrect;
+		private final int[] layerTotal = new int[schematic.heightY()];
+		private final int[] layerCorrect = new int[schematic.heightY()];
+		private final Map<Block, Integer> incorrectByBlock = new HashMap<>();
+
+		private Worker(BlockStateInterface bsi) {
+			this.bsi = bsi;
+		}
+
+		@Override
+		public void run() {
+			int column;
+			while ((column = nextColumn.getAndIncrement()) < sectionsX * sectionsZ) {
+				verifyColumn(column / sectionsZ, column % sectionsZ);
+			}
+		}
+
+		private void verifyColumn(int sectionX, int sectionZ) {
+			int maxX = Math.min(sectionX + 1 << 4, schematic.widthX());
+			int maxZ = Math.min(sectionZ + 1 << 4, schematic.lengthZ());
+			for (int x = sectionX << 4; x < maxX; x++) {
+				for (int z = sectionZ << 4; z < maxZ; z++) {
+					int worldX = originX + x;
+					int worldZ = originZ + z;
+					if (!bsi.isLoaded(worldX, worldZ)) {
+						// nothing to pass to inSchematic, and making something up could get it remembered as the state at this position
+						unknown += layerTotal.length;
+						continue;
+					}
+					boolean cached = !bsi.readsTheRealWorld(worldX, worldZ);
+					for (int y = 0; y < layerTotal.length; y++) {
+						BlockState current = bsi.get0(worldX, originY + y, worldZ);
+						if (!schematic.inSchematic(x, y, z, current))
+							continue;
+						layerTotal[y]++;
+						BlockState desired = schematic.desiredState(x, y, z, current, approxPlaceable);
+						boolean ok;
+						if (cached) {
+							approximateTotal++;
+							ok = valid.test(current, desired) || sameCachedType(current, desired);
+							if (ok)
+								approximateCorrect++;
+						} else {
+							total++;
+							ok = valid.test(current, desired);
+							if (ok)
+								correct++;
+						}
+						if (ok) {
+							layerCorrect[y]++;
+							continue;
+						}
+						incorrectByBlock.merge(desired.getBlock(), 1, Integer::sum);
+						int section = (sectionX * sectionsY + (y >> 4)) * sectionsZ + sectionZ;
+						int[] bounds = sectionBounds;
+						int i = section * 6;
+						if (sectionIncorrect[section]++ == 0) {
+							bounds[i] = bounds[i + 3] = x;
+							bounds[i + 1] = bounds[i + 4] = y;
+							bounds[i + 2] = bounds[i + 5] = z;
+						} else {
+							bounds[i] = Math.min(bounds[i], x);
+							bounds[i + 1] = Math.min(bounds[i + 1], y);
+							bounds[i + 2] = Math.min(bounds[i + 2], z);
+							bounds[i + 3] = Math.max(bounds[i + 3], x);
+							bounds[i + 4] = Math.max(bounds[i + 4], y);
+							bounds[i + 5] = Math.max(bounds[i + 5], z);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The cache only has stand in states, so in cached chunks all that can be compared is what the desired state would be cached as
+	 */
+	private static boolean sameCachedType(BlockState cached, BlockState desired) {
+		PathingBlockType type = ChunkPacker.approximatePathingBlockType(cached);
+		// water next to flowing water is cached as avoid
+		return type == ChunkPacker.approximatePathingBlockType(desired) || type == PathingBlockType.AVOID && MovementHelper.isWater(desired);
+	}
+
+	private SchematicVerifier(ISchematic schematic, Vec3i origin, List<BlockState> approxPlaceable, BiPredicate<BlockState, BlockState> valid) {
+		this.schematic = schematic;
+		originX = origin.getX();
+		originY = origin.getY();
+		originZ = origin.getZ();
+		this.approxPlaceable = approxPlaceable;
+		this.valid = valid;
+		sectionsX = schematic.widthX() + 15 >> 4;
+		sectionsY = schematic.heightY() + 15 >> 4;
+		sectionsZ = schematic.lengthZ() + 15 >> 4;
+		sectionIncorrect = new int[sectionsX * sectionsY * sectionsZ];
+		sectionBounds = new int[sectionIncorrect.length * 6];
+	}
+
+	/**
+	 * Starts verifying a schematic. This has to be called on the client thread, since that's where the copies of the loaded chunks are made.
+	 *
+	 * @param schematic       The schematic
+	 * @param origin          Where the schematic is in the world
+	 * @param approxPlaceable The placeable states to pass to the schematic
+	 * @param valid           Whether the current state at a position counts as the desired state
+	 * @param bsi             Creates a thread safe view of the world, once per worker
+	 * @return The report, once every column is verified
+	 */
+	public static CompletableFuture<VerificationReport> verify(ISchematic schematic, Vec3i origin, List<BlockState> approxPlaceable, BiPredicate<BlockState, BlockState> valid, Supplier<BlockStateInterface> bsi) {
+		SchematicVerifier verifier = new SchematicVerifier(schematic, origin, approxPlaceable, valid);
+		int workers = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), verifier.sectionsX * verifier.sectionsZ));
+		List<Worker> started = new ArrayList<>();
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+		for (int i = 0; i < workers; i++) {
+			Worker worker = verifier.new Worker(bsi.get());
+			started.add(worker);
+			futures[i] = CompletableFuture.runAsync(worker, Baritone.getExecutor());
+		}
+		return CompletableFuture.allOf(futures).thenApply(v -> verifier.report(started));
+	}
+
+	private VerificationReport report(List<Worker> workers) {
+		long total = 0;
+		long correct = 0;
+		long unknown = 0;
+		long approximateTotal = 0;
+		long approximateCorrect = 0;
+		int[] layerTotal = new int[schematic.heightY()];
+		int[] layerCorrect = new int[schematic.heightY()];
+		Map<Block, Integer> incorrectByBlock = new HashMap<>();
+		for (Worker worker : workers) {
+			total += worker.total;
+			correct += worker.correct;
+			unknown += worker.unknown;
+			approximateTotal += worker.approximateTotal;
+			approximateCorrect += worker.approximateCorrect;
+			for (int y = 0; y < layerTotal.length; y++) {
+				layerTotal[y] += worker.layerTotal[y];
+				layerCorrect[y] += worker.layerCorrect[y];
+			}
+			worker.incorrectByBlock.forEach((block, count) -> incorrectByBlock.merge(block, count, Integer::sum));
+		}
+		Map<Block, Integer> sorted = new LinkedHashMap<>();
+		incorrectByBlock.entrySet().stream().sorted(Map.Entry.<Block, Integer> comparingByValue().reversed()).forEachOrdered(entry -> sorted.put(entry.getKey(), entry.getValue()));
+		return new VerificationReport(total, correct, approximateTotal, approximateCorrect, unknown, layerTotal, layerCorrect, sorted, regions());
+	}
+
+	/**
+	 * Flood fills the sections with incorrect positions, merging face adjacent ones into one region
+	 */
+	private List<VerificationReport.Region> regions() {
+		List<VerificationReport.Region> regions = new ArrayList<>();
+		boolean[] visited = new boolean[sectionIncorrect.length];
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int start = 0; start < sectionIncorrect.length; start++) {
+			if (sectionIncorrect[start] == 0 || visited[start])
+				continue;
+			visited[start] = true;
+			queue.add(start);
+			int incorrect = 0;
+			int[] bounds = { Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE };
+			while (!queue.isEmpty()) {
+				int section = queue.poll();
+				incorrect += sectionIncorrect[section];
+				for (int i = 0; i < 3; i++) {
+					bounds[i] = Math.min(bounds[i], sectionBounds[section * 6 + i]);
+					bounds[i + 3] = Math.max(bounds[i + 3], sectionBounds[section * 6 + i + 3]);
+				}
+				int sz = section % sectionsZ;
+				int sy = section / sectionsZ % sectionsY;
+				int sx = section / sectionsZ / sectionsY;
+				visit(queue, visited, sx - 1, sy, sz);
+				visit(queue, visited, sx + 1, sy, sz);
+				visit(queue, visited, sx, sy - 1, sz);
+				visit(queue, visited, sx, sy + 1, sz);
+				visit(queue, visited, sx, sy, sz - 1);
+				visit(queue, visited, sx, sy, sz + 1);
+			}
+			regions.add(new VerificationReport.Region(new BetterBlockPos(originX + bounds[0], originY + bounds[1], originZ + bounds[2]), new BetterBlockPos(originX + bounds[3], originY + bounds[4], originZ + bounds[5]), incorrect));
+		}
+		regions.sort(Comparator.comparingInt((VerificationReport.Region region) -> region.incorrect).reversed());
+		return regions;
+	}
+
+	private void visit(ArrayDeque<Integer> queue, boolean[] visited, int sx, int sy, int sz) {
+		if (sx < 0 || sy < 0 || sz < 0 || sx >= sectionsX || sy >= sectionsY || sz >= sectionsZ)
+			return;
+		int section = (sx * sectionsY + sy) * sectionsZ + sz;
+		if (sectionIncorrect[section] != 0 && !visited[section]) {
+			visited[section] = true;
+			queue.add(section);
+		}
+	}
+}
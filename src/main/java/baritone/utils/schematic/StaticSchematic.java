@@ -10,33 +10,208 @@
 
 package baritone.utils.schematic;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import baritone.Baritone;
 import baritone.api.schematic.AbstractSchematic;
 import baritone.api.schematic.IStaticSchematic;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 
 /**
  * Default implementation of {@link IStaticSchematic}
+ * <p>
+ * Like the chunk sections of the game, this stores a palette of the distinct states in the schematic and packs the palette index of every position into as few bits as the palette needs. Positions are laid out column by column, so a column is contiguous.
+ * <p>
+ * Formats can hand over a {@link LayerDecoder} instead of decoding everything up front. Layers are then decoded in the background, bottom up, and any layer that is accessed before the background pass gets to it is decoded right away.
  *
  * @author Brady
  * @since 12/23/2019
  */
 public class StaticSchematic extends AbstractSchematic implements IStaticSchematic {
 
-	protected BlockState[][][] states;
+	/**
+	 * Decodes the source data of a schematic one y layer at a time
+	 */
+	@FunctionalInterface
+	protected interface LayerDecoder {
+
+		/**
+		 * Decodes every position of a layer, through {@link StaticSchematic#set}
+		 *
+		 * @param y The layer
+		 */
+		void decode(int y);
+	}
+
+	private BlockState[] palette = new BlockState[] { Blocks.AIR.getDefaultState() };
+
+	private int paletteSize = 1;
+
+	private final Reference2IntOpenHashMap<BlockState> paletteIndices = new Reference2IntOpenHashMap<>();
+
+	/**
+	 * {@link #bits} per position, never straddling two longs
+	 */
+	private long[] data;
+
+	private int bits;
+
+	private int entriesPerLong;
+
+	private long mask;
+
+	/**
+	 * Held while a layer is decoded. Only one layer can be decoded at a time, since adjacent layers share longs in {@link #data} and decoding can add to the palette, but reading a layer that's already decoded never takes it.
+	 */
+	private final Object decodeLock = new Object();
+
+	/**
+	 * Guarded by {@link #decodeLock}, and dropped along with the source data it references once every layer is decoded
+	 */
+	private LayerDecoder decoder;
+
+	/**
+	 * Non zero for every layer that is decoded. Only set once the whole layer is written, so a reader that sees it set sees the layer.
+	 */
+	private AtomicIntegerArray decoded;
+
+	/**
+	 * Guarded by {@link #decodeLock}
+	 */
+	private int remaining;
+
+	/**
+	 * Whether every layer has been decoded, after which reads don't need to check {@link #decoded} anymore
+	 */
+	private volatile boolean loaded = true;
+
+	/**
+	 * Allocates the storage for the dimensions in {@link #x}, {@link #y} and {@link #z}, with every position air
+	 *
+	 * @param expectedStates How many distinct states the schematic is expected to have, so the storage doesn't have to be repacked as the palette grows
+	 */
+	protected void allocate(int expectedStates) {
+		palette = Arrays.copyOf(palette, Math.max(expectedStates, 1));
+		paletteIndices.defaultReturnValue(-1);
+		paletteIndices.put(palette[0], 0);
+		resize(Math.max(32 - Integer.numberOfLeadingZeros(Math.max(expectedStates, 2) - 1), 1), null);
+	}
+
+	private void resize(int bits, long[] old) {
+		int oldBits = this.bits;
+		int oldEntriesPerLong = entriesPerLong;
+		long oldMask = mask;
+		this.bits = bits;
+		entriesPerLong = 64 / bits;
+		mask = (1L << bits) - 1;
+		int size = x * y * z;
+		data = new long[(size + entriesPerLong - 1) / entriesPerLong];
+		if (old != null) {
+			for (int i = 0; i < size; i++) {
+				write(i, (int) (old[i / oldEntriesPerLong] >>> i % oldEntriesPerLong * oldBits & oldMask));
+			}
+		}
+	}
+
+	private int index(int x, int y, int z) {
+		return (x * this.z + z) * this.y + y;
+	}
+
+	private int read(int index) {
+		return (int) (data[index / entriesPerLong] >>> index % entriesPerLong * bits & mask);
+	}
+
+	private void write(int index, int value) {
+		int shift = index % entriesPerLong * bits;
+		int word = index / entriesPerLong;
+		data[word] = data[word] & ~(mask << shift) | (long) value << shift;
+	}
+
+	/**
+	 * Sets the state at a position, only meant to be used while the schematic is being loaded
+	 */
+	protected void set(int x, int y, int z, BlockState state) {
+		int value = paletteIndices.getInt(state);
+		if (value == -1) {
+			value = paletteSize++;
+			if (value == palette.length) {
+				palette = Arrays.copyOf(palette, palette.length * 2);
+			}
+			palette[value] = state;
+			paletteIndices.put(state, value);
+			if (value > mask) {
+				resize(bits + 1, data);
+			}
+		}
+		write(index(x, y, z), value);
+	}
+
+	/**
+	 * Decodes the schematic lazily instead of up front. This must be called after {@link #allocate}, with every state that can occur accounted for in its {@code expectedStates}, since the storage can't be repacked while other threads are reading it.
+	 *
+	 * @param decoder The decoder
+	 */
+	protected void decodeLazily(LayerDecoder decoder) {
+		if (y == 0)
+			return;
+
+		this.decoder = decoder;
+		decoded = new AtomicIntegerArray(y);
+		remaining = y;
+		loaded = false;
+		Baritone.getExecutor().execute(() -> {
+			for (int y = 0; y < this.y && !loaded; y++) {
+				ensureDecoded(y);
+			}
+		});
+	}
+
+	/**
+	 * Decodes a layer if it isn't yet, only locking if it isn't
+	 */
+	private void ensureDecoded(int y) {
+		if (loaded || decoded.get(y) != 0)
+			return;
+
+		synchronized (decodeLock) {
+			if (decoded.get(y) != 0)
+				return;
+
+			decoder.decode(y);
+			decoded.set(y, 1);
+			if (--remaining == 0) {
+				decoder = null;
+				loaded = true;
+			}
+		}
+	}
 
 	@Override
 	public BlockState desiredState(int x, int y, int z, BlockState current, List<BlockState> approxPlaceable) {
-		return states[x][z][y];
+		return getDirect(x, y, z);
 	}
 
 	@Override
 	public BlockState[] getColumn(int x, int z) {
-		return states[x][z];
+		if (!loaded) {
+			for (int y = 0; y < this.y; y++) {
+				ensureDecoded(y);
+			}
+		}
+		BlockState[] column = new BlockState[y];
+		int start = index(x, 0, z);
+		for (int y = 0; y < column.length; y++) {
+			column[y] = palette[read(start + y)];
+		}
+		return column;
 	}
 
 	@Override
 	public BlockState getDirect(int x, int y, int z) {
-		return states[x][z][y];
+		ensureDecoded(y);
+		return palette[read(index(x, y, z))];
 	}
-}
\ No newline at end of file
+}
@@ -12,7 +12,6 @@ package baritone.utils.schematic.format.defaults;
 
 import baritone.utils.schematic.StaticSchematic;
 import net.minecraft.block.Block;
-import net.minecraft.block.BlockState;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.util.registry.Registry;
 
@@ -41,23 +40,37 @@ public final class MCEditSchematic extends StaticSchematic {
 				additional[i * 2 + 1] = (byte) (addBlocks[i] >> 0 & 0xF); // upper nibble
 			}
 		}
-		states = new BlockState[x][z][y];
-		for (int y = 0; y < this.y; y++) {
+		// the ids only go up to 4095, so counting the distinct ones is a cheap pass that lets the storage be sized up front
+		boolean[] seen = new boolean[4096];
+		int distinct = 0;
+		for (int i = 0; i < x * y * z; i++) {
+			int blockID = blockID(blocks, additional, i);
+			if (!seen[blockID]) {
+				seen[blockID] = true;
+				distinct++;
+			}
+		}
+		allocate(distinct + 1);
+		byte[] additionalBlocks = additional;
+		decodeLazily(y -> {
 			for (int z = 0; z < this.z; z++) {
 				for (int x = 0; x < this.x; x++) {
 					int blockInd = (y * this.z + z) * this.x + x;
-
-					int blockID = blocks[blockInd] & 0xFF;
-					if (additional != null) {
-						// additional is 0 through 15 inclusive since it's & 0xF above
-						blockID |= additional[blockInd] << 8;
-					}
-					Block block = Registry.BLOCK.get(blockID);
+					Block block = Registry.BLOCK.get(blockID(blocks, additionalBlocks, blockInd));
 					// TODO: Find a way to keep using metadata to get a proper BlockState (Fabritone)
 					//int meta = metadata[blockInd] & 0xFF;
-					states[x][z][y] = block.getDefaultState();
+					set(x, y, z, block.getDefaultState());
 				}
 			}
+		});
+	}
+
+	private static int blockID(byte[] blocks, byte[] additional, int blockInd) {
+		int blockID = blocks[blockInd] & 0xFF;
+		if (additional != null) {
+			// additional is 0 through 15 inclusive since it's & 0xF above
+			blockID |= additional[blockInd] << 8;
 		}
+		return blockID;
 	}
 }
\ No newline at end of file
@@ -16,7 +16,6 @@ import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import baritone.utils.schematic.StaticSchematic;
-import baritone.utils.type.VarInt;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
@@ -108,9 +107,9 @@ public final class SpongeSchematic extends StaticSchematic {
 		x = nbt.getInt("Width");
 		y = nbt.getInt("Height");
 		z = nbt.getInt("Length");
-		states = new BlockState[x][z][y];
 
-		Int2ObjectArrayMap<BlockState> palette = new Int2ObjectArrayMap<>();
+		Int2ObjectArrayMap<BlockState> paletteMap = new Int2ObjectArrayMap<>();
+		int maxIndex = -1;
 		CompoundTag paletteTag = nbt.getCompound("Palette");
 		for (String tag : paletteTag.getKeys()) {
 			int index = paletteTag.getInt(tag);
@@ -123,33 +122,57 @@ public final class SpongeSchematic extends StaticSchematic {
 			if (state == null)
 				throw new IllegalArgumentException("Unable to deserialize palette tag");
 
-			palette.put(index, state);
+			paletteMap.put(index, state);
+			maxIndex = Math.max(maxIndex, index);
 		}
+		BlockState[] palette = new BlockState[maxIndex + 1];
+		paletteMap.forEach((index, state) -> {
+			if (index >= 0)
+				palette[index] = state;
+		});
 
 		// BlockData is stored as an NBT byte[], however, the actual data that is represented is a varint[]
-		byte[] rawBlockData = nbt.getByteArray("BlockData");
-		int[] blockData = new int[x * y * z];
+		// it's stored in y, z, x order, so every y layer is one contiguous run. one quick pass validates the data and finds where each layer starts, the actual decoding is deferred until a layer is needed
+		byte[] blockData = nbt.getByteArray("BlockData");
+		int[] layerOffsets = new int[y];
 		int offset = 0;
-		for (int i = 0; i < blockData.length; i++) {
-			if (offset >= rawBlockData.length)
-				throw new IllegalArgumentException("No remaining bytes in BlockData for complete schematic");
-
-			VarInt varInt = VarInt.read(rawBlockData, offset);
-			blockData[i] = varInt.getValue();
-			offset += varInt.getSize();
+		for (int y = 0; y < this.y; y++) {
+			layerOffsets[y] = offset;
+			for (int i = 0; i < this.z * this.x; i++) {
+				if (offset >= blockData.length)
+					throw new IllegalArgumentException("No remaining bytes in BlockData for complete schematic");
+
+				int value = 0;
+				int size = 0;
+				byte b;
+				do {
+					if (size == 5 || offset >= blockData.length)
+						throw new IllegalArgumentException("Malformed VarInt in BlockData");
+					b = blockData[offset++];
+					value |= (b & 0x7F) << size++ * 7;
+				} while ((b & 0x80) != 0);
+
+				if (value < 0 || value >= palette.length || palette[value] == null)
+					throw new IllegalArgumentException("Invalid Palette Index " + (y * this.z * this.x + i));
+			}
 		}
 
-		for (int y = 0; y < this.y; y++) {
+		// plus one for the air every schematic starts out with
+		allocate(paletteMap.size() + 1);
+		decodeLazily(y -> {
+			int index = layerOffsets[y];
 			for (int z = 0; z < this.z; z++) {
 				for (int x = 0; x < this.x; x++) {
-					int index = (y * this.z + z) * this.x + x;
-					BlockState state = palette.get(blockData[index]);
-					if (state == null)
-						throw new IllegalArgumentException("Invalid Palette Index " + index);
-
-					states[x][z][y] = state;
+					int value = 0;
+					int size = 0;
+					byte b;
+					do {
+						b = blockData[index++];
+						value |= (b & 0x7F) << size++ * 7;
+					} while ((b & 0x80) != 0);
+					set(x, y, z, palette[value]);
 				}
 			}
-		}
+		});
 	}
 }
\ No newline at end of file